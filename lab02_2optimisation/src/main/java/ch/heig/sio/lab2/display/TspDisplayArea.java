@@ -2,13 +2,14 @@ package ch.heig.sio.lab2.display;
 
 import ch.heig.sio.lab2.tsp.Edge;
 import ch.heig.sio.lab2.tsp.TspData;
+import ch.heig.sio.lab2.tsp.TspTour;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
 import java.awt.image.BufferedImage;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
@@ -38,7 +39,8 @@ final class TspDisplayArea extends JPanel {
 
   // Data to display
   private TspData data;
-  private ArrayList<Edge> tspTour;
+  /** Cities of the edges to display, two per edge. */
+  private int[] tspTour;
 
   // Cached data
   private BufferedImage cityBuffer;
@@ -65,7 +67,7 @@ final class TspDisplayArea extends JPanel {
     super.paintComponent(g);
 
     // Prevent race conditions
-    ArrayList<Edge> tour = tspTour;
+    int[] tour = tspTour;
     if (data == null || tour == null) {
       return;
     }
@@ -76,9 +78,9 @@ final class TspDisplayArea extends JPanel {
     g2d.setStroke(new BasicStroke(2));
     g2d.setColor(Color.BLUE);
 
-    for (Edge e : tour) {
-      TspData.City city1 = data.getCityCoord(e.u());
-      TspData.City city2 = data.getCityCoord(e.v());
+    for (int e = 0; e < tour.length; e += 2) {
+      TspData.City city1 = data.getCityCoord(tour[e]);
+      TspData.City city2 = data.getCityCoord(tour[e + 1]);
 
       g2d.drawLine(
           (int) (city1.x() * zoomX + offsetX),
@@ -165,8 +167,33 @@ final class TspDisplayArea extends JPanel {
    * @param edges All edges composing the (incomplete) tour.
    */
   public void update(Iterator<Edge> edges) {
-    tspTour = new ArrayList<>();
-    edges.forEachRemaining(tspTour::add);
+    int[] tour = new int[2 * Math.max(1, data == null ? 0 : data.getNumberOfCities())];
+    int size = 0;
+    while (edges.hasNext()) {
+      Edge edge = edges.next();
+      if (size == tour.length) {
+        tour = Arrays.copyOf(tour, 2 * size);
+      }
+      tour[size++] = edge.u();
+      tour[size++] = edge.v();
+    }
+    tspTour = size == tour.length ? tour : Arrays.copyOf(tour, size);
+    repaint();
+  }
+
+  /**
+   * Updates the display with a complete tour.
+   *
+   * @param tour Cities of the tour.
+   */
+  public void update(TspTour.View tour) {
+    int[] edges = new int[2 * tour.size()];
+    int[] size = {0};
+    tour.forEachEdge((u, v) -> {
+      edges[size[0]++] = u;
+      edges[size[0]++] = v;
+    });
+    tspTour = edges;
     repaint();
   }
 
@@ -177,7 +204,7 @@ final class TspDisplayArea extends JPanel {
    */
   public void reset(TspData data) {
     this.data = data;
-    this.tspTour = new ArrayList<>();
+    this.tspTour = new int[0];
 
     cache();
     repaint();
@@ -9,12 +9,16 @@ import java.util.Iterator;
  *
  * <p>An update provides all the edges to display as an {@link Iterator}. This is for convenience of the display,
  * <b>this does not imply that the heuristic is required to store all the edges of the tour.</b></p>
+ *
+ * <p>Heuristics may create the edges lazily, while the iterator is traversed, from a state that changes after the
+ * update. An observer must therefore traverse the edges during {@link #update}, or not at all: observers that skip
+ * updates, like the one of headless runs, then never pay for the edges.</p>
  */
 public interface TspHeuristicObserver {
   /**
    * <p>Update the observer with the current edges.</p>
    *
-   * @param edges Current edges.
+   * @param edges Current edges, only valid during the call.
    */
   void update(Iterator<Edge> edges);
 }
@@ -1,6 +1,5 @@
 package ch.heig.sio.lab2.display;
 
-import ch.heig.sio.lab2.tsp.Edge;
 import ch.heig.sio.lab2.tsp.TspData;
 import ch.heig.sio.lab2.tsp.TspParsingException;
 import ch.heig.sio.lab2.tsp.TspTour;
@@ -13,13 +12,11 @@ import java.awt.event.WindowEvent;
 import java.io.FileNotFoundException;
 import java.nio.file.Path;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.Random;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Supplier;
-import java.util.stream.IntStream;
 
 /**
  * GUI class for the TSPSolver.
@@ -298,7 +295,7 @@ public final class TspSolverGui {
       callable = () -> chosenConstructiveHeuristic.computeTour(currentData, startCity, animation);
     } else {
       TspTour initialTour = chosenConstructiveHeuristic.computeTour(currentData, startCity);
-      displayArea.update(toIterator(initialTour));
+      displayArea.update(initialTour.tour());
       callable = () -> chosenImprovementHeuristic.computeTour(initialTour, animation);
     }
 
@@ -319,24 +316,11 @@ public final class TspSolverGui {
         });
   }
 
-  /**
-   * Converts a TspTour to an iterator of edges.
-   *
-   * @param tspTour The TspTour to convert.
-   * @return An iterator of edges.
-   */
-  private static Iterator<Edge> toIterator(TspTour tspTour) {
-    TspTour.View tour = tspTour.tour();
-    return IntStream.range(0, tour.size())
-            .mapToObj(i -> new Edge(tour.get(i), tour.get((i + 1) % tour.size())))
-            .iterator();
-  }
-
   /**
    * Does the clean-up & post-heuristic actions.
    */
   private void heuristicComplete(TspTour tspTour) {
-    displayArea.update(toIterator(tspTour));
+    displayArea.update(tspTour.tour());
     this.resultsLabel.setText("Done. Distance is " + tspTour.length());
     this.reset(true);
   }
@@ -424,7 +408,9 @@ public final class TspSolverGui {
   private void init() {
     try {
       // TSP Solving data
-      currentData = TspData.fromFile(this.filePath);
+      currentData = this.filePath.endsWith(".tsp")
+          ? TspData.fromTspLibFile(this.filePath)
+          : TspData.fromFile(this.filePath);
       this.currentFileLabel.setText("Current file: " + this.dataFileDialog.getFile());
       this.startCityIndexChoice.removeAllItems();
       this.startCityIndexChoice.addItem(-1);
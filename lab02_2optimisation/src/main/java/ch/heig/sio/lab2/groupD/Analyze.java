@@ -1,13 +1,20 @@
 package ch.heig.sio.lab2.groupD;
 
 
+import ch.heig.sio.lab2.groupD.heuristics.CheapestInsert;
 import ch.heig.sio.lab2.groupD.heuristics.ClosestFirstInsert;
 import ch.heig.sio.lab2.groupD.heuristics.FarthestFirstInsert;
+import ch.heig.sio.lab2.groupD.heuristics.PrunedInsertion;
+import ch.heig.sio.lab2.tsp.DistanceBackend;
+import ch.heig.sio.lab2.tsp.MatrixFileCache;
 import ch.heig.sio.lab2.tsp.RandomTour;
 import ch.heig.sio.lab2.tsp.TspConstructiveHeuristic;
 import ch.heig.sio.lab2.tsp.TspData;
+import ch.heig.sio.lab2.tsp.TspLoadOptions;
 import io.github.cdimascio.dotenv.Dotenv;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.*;
 
@@ -81,12 +88,68 @@ public final class Analyze {
       RANDOM_SEED = 0x134DAE9;
     }
 
+    // Stockage des distances optionnel (FULL, PACKED, COMPACT, OFF_HEAP ou COMPUTED), choisi automatiquement si absent.
+    TspLoadOptions loadOptions = TspLoadOptions.defaults();
+    Dotenv options = Dotenv.configure().ignoreIfMissing().load();
+    String backend = options.get("TSP_DISTANCE_BACKEND");
+    if (backend != null) {
+      try {
+        loadOptions = loadOptions.withBackend(DistanceBackend.valueOf(backend));
+      } catch (IllegalArgumentException e) {
+        System.err.println("Unknown TSP_DISTANCE_BACKEND " + backend + ", expected one of "
+                + Arrays.toString(DistanceBackend.values()) + ". Using automatic selection.");
+      }
+    }
+    // Matrice des distances ordonnée selon une courbe de Hilbert, sans changer les résultats.
+    loadOptions = loadOptions.withHilbertOrder(Boolean.parseBoolean(options.get("TSP_HILBERT_ORDER", "false")));
+    // Cache des matrices de distances sur disque, pour ne pas les recalculer à chaque exécution.
+    String cacheDirectory = options.get("TSP_MATRIX_CACHE_DIR");
+    if (cacheDirectory != null) {
+      MatrixFileCache cache = MatrixFileCache.in(Path.of(cacheDirectory));
+      String cacheMaxMegabytes = options.get("TSP_MATRIX_CACHE_MAX_MB");
+      if (cacheMaxMegabytes != null) {
+        try {
+          cache = cache.withMaxBytes(Long.parseLong(cacheMaxMegabytes) << 20);
+        } catch (IllegalArgumentException e) {
+          // NumberFormatException pour une valeur non numérique, IllegalArgumentException pour une valeur négative
+          System.err.println("Invalid TSP_MATRIX_CACHE_MAX_MB " + cacheMaxMegabytes
+                  + ", expected a non-negative number of megabytes. Using the default limit.");
+        }
+      }
+      loadOptions = loadOptions.withMatrixCache(cache);
+    }
+
    TspConstructiveHeuristic[] heuristics = {
             new ClosestFirstInsert(),
             new FarthestFirstInsert(),
+            new CheapestInsert(),
             new RandomTour(RANDOM_SEED)
     };
 
+    // Insertion évaluant seulement les arêtes des villes du tour les plus proches, optionnelle (0 pour tout le tour).
+    // La vérification exacte (TSP_INSERTION_EXACT) garde les mêmes coûts d'insertion qu'en parcourant tout le tour,
+    // mais retombe presque toujours sur le parcours complet : elle est désactivée par défaut.
+    int insertionNeighbours = 0;
+    String neighbours = options.get("TSP_INSERTION_NEIGHBOURS");
+    if (neighbours != null) {
+      try {
+        insertionNeighbours = Integer.parseInt(neighbours);
+      } catch (NumberFormatException e) {
+        insertionNeighbours = -1;
+      }
+      if (insertionNeighbours < 0) {
+        System.err.println("Invalid TSP_INSERTION_NEIGHBOURS " + neighbours
+                + ", expected a non-negative integer. Scanning the whole tour.");
+        insertionNeighbours = 0;
+      }
+    }
+    boolean exactInsertion = Boolean.parseBoolean(options.get("TSP_INSERTION_EXACT", "false"));
+    for (TspConstructiveHeuristic heuristic : heuristics) {
+      if (heuristic instanceof PrunedInsertion insertion) {
+        insertion.setPrunedInsertion(insertionNeighbours, exactInsertion);
+      }
+    }
+
     var opt2 = new Improvement2Opt();
 
     // Tableau des fichiers de données
@@ -101,9 +164,14 @@ public final class Analyze {
 
       // Ouvre chaque fichier et fait une analyse des heuristiques
       try {
-        TspData data = TspData.fromFile("data/" + file + ".dat");
-
-        System.out.println("\nProcessing dataset: " + file + ".dat (" + data.getNumberOfCities() + " cities)");
+        // Le format binaire (voir TspBinaryFormat) est chargé instantanément s'il a été généré
+        Path binaryFile = Path.of("data/" + file + ".bin");
+        TspData data = Files.exists(binaryFile)
+                ? TspData.fromMappedFile(binaryFile.toString(), loadOptions)
+                : TspData.fromFile("data/" + file + ".dat", loadOptions);
+
+        System.out.println("\nProcessing dataset: " + file + ".dat (" + data.getNumberOfCities() + " cities, "
+                + data.getDistanceBackend() + " distances)");
         Map<String, Statistics> stats = new LinkedHashMap<>();
 
         // Ce RandomTour est utilisé pour générer les NUMBER_CITIES villes de départ pour les heuristiques qui en ont besoin.
@@ -167,6 +235,9 @@ public final class Analyze {
         }
 
         printStatistics(file, stats, optimalDistances[fileIndex]);
+        if (data.getDistanceCache() != null) {
+          System.out.println(data.getDistanceCache());
+        }
 
       } catch (Exception e) {
         System.err.println("There was an error in processing " + file + ".dat");
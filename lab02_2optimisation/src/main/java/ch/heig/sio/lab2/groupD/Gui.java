@@ -4,6 +4,7 @@ import ch.heig.sio.lab2.display.HeuristicComboItem;
 import ch.heig.sio.lab2.display.ObservableTspConstructiveHeuristic;
 import ch.heig.sio.lab2.display.ObservableTspImprovementHeuristic;
 import ch.heig.sio.lab2.display.TspSolverGui;
+import ch.heig.sio.lab2.groupD.heuristics.CheapestInsert;
 import ch.heig.sio.lab2.groupD.heuristics.ClosestFirstInsert;
 import ch.heig.sio.lab2.groupD.heuristics.FarthestFirstInsert;
 import ch.heig.sio.lab2.groupD.heuristics.RandomInsert;
@@ -17,7 +18,8 @@ public final class Gui {
         new HeuristicComboItem.Constructive("Random tour", new RandomTour()),
             new HeuristicComboItem.Constructive("Closest First", new ClosestFirstInsert()),
             new HeuristicComboItem.Constructive("Farthest First", new FarthestFirstInsert()),
-            new HeuristicComboItem.Constructive("Random Insert", new RandomInsert())
+            new HeuristicComboItem.Constructive("Random Insert", new RandomInsert()),
+            new HeuristicComboItem.Constructive("Cheapest Insert", new CheapestInsert())
     };
 
     ObservableTspImprovementHeuristic[] improvementHeuristics = {
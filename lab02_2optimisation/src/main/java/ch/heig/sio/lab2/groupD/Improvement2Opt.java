@@ -2,7 +2,7 @@ package ch.heig.sio.lab2.groupD;
 
 import ch.heig.sio.lab2.display.ObservableTspImprovementHeuristic;
 import ch.heig.sio.lab2.display.TspHeuristicObserver;
-import ch.heig.sio.lab2.groupD.Utilities.IteratorObserver;
+import ch.heig.sio.lab2.tsp.DistanceOracle;
 import ch.heig.sio.lab2.tsp.TspData;
 import ch.heig.sio.lab2.tsp.TspTour;
 
@@ -43,6 +43,11 @@ public class Improvement2Opt implements ObservableTspImprovementHeuristic {
         final TspData tourData = initialTour.data();
         final int tourNbVertices = initialTour.tour().size();
         final int[] tourCopy = initialTour.tour().copy();
+        // Les distances sont lues par ligne du stockage, sans traduire les sommets à chaque accès (matrice ordonnée selon
+        // une courbe de Hilbert). rowTour subit les mêmes inversions que tourCopy, qui reste le tour des sommets.
+        // Les lignes viennent du tour, elles sont donc valides : on évite la validation de getDistance dans la boucle
+        final int[] rowTour = tourData.toRows(tourCopy);
+        final DistanceOracle distances = tourData.getRowDistanceOracle();
 
         long tourLength = initialTour.length();
         long oldTourLength;
@@ -59,7 +64,7 @@ public class Improvement2Opt implements ObservableTspImprovementHeuristic {
             // On s'arrête deux sommets avant la fin, car les arcs qui suivent ont déjà été traité.
             for (int i = 0; i < tourNbVertices - 2; i++) {
                 int i1 = i + 1;
-                int currentEdge1 = tourData.getDistance(tourCopy[i], tourCopy[i1]);
+                int currentEdge1 = distances.distance(rowTour[i], rowTour[i1]);
 
                 for (int j = i + 2; j < tourNbVertices; j++) {
                     int j1 = j + 1;
@@ -71,9 +76,9 @@ public class Improvement2Opt implements ObservableTspImprovementHeuristic {
                     }
 
                     //Calcul de l'amélioration possible
-                    long currentCost = currentEdge1 + tourData.getDistance(tourCopy[j], tourCopy[j1]);
-                    long newCost = tourData.getDistance(tourCopy[i], tourCopy[j]) +
-                            tourData.getDistance(tourCopy[i1], tourCopy[j1]);
+                    long currentCost = currentEdge1 + distances.distance(rowTour[j], rowTour[j1]);
+                    long newCost = distances.distance(rowTour[i], rowTour[j]) +
+                            distances.distance(rowTour[i1], rowTour[j1]);
                     long improvement = currentCost - newCost;
 
                     //Si une amélioration est trouvée, on garde sa valeur et on indique quels sommets à inverser
@@ -96,11 +101,15 @@ public class Improvement2Opt implements ObservableTspImprovementHeuristic {
                     temp = tourCopy[i];
                     tourCopy[i] = tourCopy[j];
                     tourCopy[j] = temp;
+                    temp = rowTour[i];
+                    rowTour[i] = rowTour[j];
+                    rowTour[j] = temp;
                     --j;
                 }
                 tourLength -= bestImprovement; //Mise à jour de la longueur du tour
 
-                observer.update(new IteratorObserver(tourCopy));
+                // La vue partage tourCopy : les arêtes ne sont créées que si l'observateur les parcourt
+                observer.update(new TspTour.View(tourCopy).edgeIterator());
             }
 
         } while (oldTourLength != tourLength); //True tant qu'on trouve une nouvelle amélioration
@@ -0,0 +1,214 @@
+package ch.heig.sio.lab2.groupD.Utilities;
+
+import java.util.Arrays;
+
+/**
+ * A binary heap of cities keyed by an int, stored in primitive arrays.
+ * The heap also knows the position of each city, so the key of a city already in the heap can be changed, or the city
+ * removed, in O(log n) instead of searching for it. The order of the keys is given by an {@link Order}, the first city
+ * being the one with the smallest key for {@link Order#MIN} or the largest for {@link Order#MAX}. Cities with the same
+ * key are ordered by index, so that the order in which they leave the heap doesn't depend on the order of the operations.
+ *
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class IndexedHeap {
+
+    /**
+     * The order of the keys of a heap.
+     */
+    @FunctionalInterface
+    public interface Order {
+        Order MIN = (key1, key2) -> key1 < key2;
+        Order MAX = (key1, key2) -> key1 > key2;
+
+        /**
+         * @param key1 A key
+         * @param key2 Another key
+         * @return True if a city with the first key must leave the heap before a city with the second one
+         */
+        boolean isBefore(int key1, int key2);
+    }
+
+    private static final int ABSENT = -1;
+
+    private final Order order;
+
+    private final int[] heap;
+    private final int[] positions;
+    private final int[] keys;
+    private int size;
+
+    /**
+     * Create an empty min-heap.
+     * @param capacity Number of cities, the cities of the heap must be in [0, capacity[
+     */
+    public IndexedHeap(int capacity) {
+        this(capacity, Order.MIN);
+    }
+
+    /**
+     * Create an empty heap.
+     * @param capacity Number of cities, the cities of the heap must be in [0, capacity[
+     * @param order The order of the keys, the first city is the one whose key is before all the others
+     */
+    public IndexedHeap(int capacity, Order order) {
+        this.order = order;
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new int[capacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    /**
+     * Add a city, or change its key if it is already in the heap.
+     * @param city The city
+     * @param key The key of the city
+     */
+    public void put(int city, int key) {
+        if (contains(city)) {
+            int oldKey = keys[city];
+            keys[city] = key;
+            if (order.isBefore(key, oldKey)) {
+                siftUp(positions[city]);
+            } else {
+                siftDown(positions[city]);
+            }
+        } else {
+            keys[city] = key;
+            heap[size] = city;
+            positions[city] = size;
+            siftUp(size++);
+        }
+    }
+
+    /**
+     * Change the key of a city of the heap if the new key is before the current one in the order of the heap, that is
+     * lower for a min-heap. Nothing is done otherwise.
+     * @param city A city of the heap
+     * @param key The new key of the city
+     * @return True if the key has been changed
+     */
+    public boolean improveKey(int city, int key) {
+        if (!order.isBefore(key, keys[city])) {
+            return false;
+        }
+        keys[city] = key;
+        siftUp(positions[city]);
+        return true;
+    }
+
+    /**
+     * @return The first city in the order of the heap, the heap must not be empty
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * Remove the first city in the order of the heap.
+     * @return The removed city, the heap must not be empty
+     */
+    public int poll() {
+        int city = heap[0];
+        remove(city);
+        return city;
+    }
+
+    /**
+     * Remove a city of the heap.
+     * @param city A city of the heap
+     */
+    public void remove(int city) {
+        int position = positions[city];
+        positions[city] = ABSENT;
+        --size;
+        if (position == size) {
+            return;
+        }
+        // The last city fills the hole, then moves to its place
+        int last = heap[size];
+        heap[position] = last;
+        positions[last] = position;
+        siftUp(position);
+        siftDown(positions[last]);
+    }
+
+    /**
+     * @param city A city
+     * @return The key of the city, meaningless if it isn't in the heap
+     */
+    public int getKey(int city) {
+        return keys[city];
+    }
+
+    /**
+     * @param city A city
+     * @return True if the city is in the heap
+     */
+    public boolean contains(int city) {
+        return positions[city] != ABSENT;
+    }
+
+    /**
+     * Copy the cities of the heap, in no particular order.
+     * @param cities The array receiving the cities, at least as large as the heap
+     * @return The number of cities copied
+     */
+    public int copyCities(int[] cities) {
+        System.arraycopy(heap, 0, cities, 0, size);
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void siftUp(int position) {
+        int city = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!before(city, heap[parent])) {
+                break;
+            }
+            move(heap[parent], position);
+            position = parent;
+        }
+        move(city, position);
+    }
+
+    private void siftDown(int position) {
+        int city = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                ++child;
+            }
+            if (!before(heap[child], city)) {
+                break;
+            }
+            move(heap[child], position);
+            position = child;
+        }
+        move(city, position);
+    }
+
+    private void move(int city, int position) {
+        heap[position] = city;
+        positions[city] = position;
+    }
+
+    /**
+     * @return True if the first city must leave the heap before the second one
+     */
+    private boolean before(int city1, int city2) {
+        return order.isBefore(keys[city1], keys[city2]) || (keys[city1] == keys[city2] && city1 < city2);
+    }
+}
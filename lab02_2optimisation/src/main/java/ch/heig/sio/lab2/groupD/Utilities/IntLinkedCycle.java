@@ -0,0 +1,119 @@
+package ch.heig.sio.lab2.groupD.Utilities;
+
+import java.util.Arrays;
+
+/**
+ * A circular doubly linked list of cities, stored in two arrays indexed by the cities.
+ * It allocates no node and boxes no value: the successor and predecessor of a city are read directly from the arrays,
+ * which also keeps the traversals cache friendly on large instances.
+ * Each city can be in the list at most once.
+ *
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class IntLinkedCycle {
+
+    private static final int ABSENT = -1;
+
+    private final int[] next;
+    private final int[] previous;
+    private int first = ABSENT;
+    private int size;
+
+    /**
+     * Create an empty list.
+     * @param capacity Number of cities, the cities of the list must be in [0, capacity[
+     */
+    public IntLinkedCycle(int capacity) {
+        next = new int[capacity];
+        previous = new int[capacity];
+        Arrays.fill(next, ABSENT);
+        Arrays.fill(previous, ABSENT);
+    }
+
+    /**
+     * Add a city at the end of the list, that is just before the first city.
+     * @param city The city to add, not already in the list
+     */
+    public void add(int city) {
+        if (isEmpty()) {
+            first = city;
+            next[city] = city;
+            previous[city] = city;
+            size = 1;
+        } else {
+            insertAfter(previous[first], city);
+        }
+    }
+
+    /**
+     * Insert a city after another one in O(1).
+     * WARNING : This function is unsafe, it doesn't check that the cities are in the list, or not !
+     * @param city The city after which the new one should be inserted
+     * @param newCity The city to insert
+     * @throws IllegalStateException If the list is empty, the first city must be added with {@link #add(int)}
+     */
+    public void insertAfter(int city, int newCity) {
+        if (isEmpty()) {
+            throw new IllegalStateException("Cannot insert after a city of an empty list");
+        }
+        int after = next[city];
+        next[city] = newCity;
+        previous[newCity] = city;
+        next[newCity] = after;
+        previous[after] = newCity;
+        ++size;
+    }
+
+    /**
+     * @return The first city of the list, -1 if the list is empty
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * @param city A city of the list
+     * @return The city after it, the first city after the last one
+     */
+    public int getNext(int city) {
+        return next[city];
+    }
+
+    /**
+     * @param city A city of the list
+     * @return The city before it, the last city before the first one
+     */
+    public int getPrevious(int city) {
+        return previous[city];
+    }
+
+    /**
+     * @param city A city
+     * @return True if the city is in the list
+     */
+    public boolean contains(int city) {
+        return next[city] != ABSENT;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The cities of the list, starting at the first one
+     */
+    public int[] toArray() {
+        int[] cities = new int[size];
+        int city = first;
+        for (int i = 0; i < size; ++i) {
+            cities[i] = city;
+            city = next[city];
+        }
+        return cities;
+    }
+}
@@ -0,0 +1,36 @@
+package ch.heig.sio.lab2.groupD.heuristics;
+
+import ch.heig.sio.lab2.display.TspHeuristicObserver;
+import ch.heig.sio.lab2.tsp.TspData;
+
+/**
+ * The cheapest insertion heuristic used in the {@link GenericConstructiveHeuristic} to create a tour from it.
+ * At each step, it inserts the city outside the tour whose insertion increases the length of the tour the least, at the
+ * position where it costs the least. The insertions are kept up to date by a {@link CheapestInsertionEngine}.
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class CheapestInsert extends GenericConstructiveHeuristic {
+
+    /**
+     * Override the insertLogic() to insert the cheapest city at each step.
+     *
+     * @param data              The TspData used to get the distances between the cities
+     * @param startCityIndex    The index of the city the tour starts
+     * @param observer          The observer used to update the GUI
+     */
+    @Override
+    public void insertLogic(TspData data, int startCityIndex, TspHeuristicObserver observer) {
+        CheapestInsertionEngine engine = new CheapestInsertionEngine(data, cycleCities);
+        for (int i = 0; i < data.getNumberOfCities(); ++i) {
+            if (i != startCityIndex) {
+                engine.add(i);
+            }
+        }
+
+        while (!engine.isEmpty()) {
+            distance += engine.insert(engine.getCheapestCity());
+            observer.update(calculateEdges());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package ch.heig.sio.lab2.groupD.heuristics;
+
+import ch.heig.sio.lab2.groupD.Utilities.IndexedHeap;
+import ch.heig.sio.lab2.groupD.Utilities.IntLinkedCycle;
+import ch.heig.sio.lab2.tsp.TspData;
+
+/**
+ * Keeps the cheapest insertion of every city outside a tour, so that the city to insert and its position are known
+ * without scanning the whole tour for each city.
+ * For each city outside the tour, the engine remembers the edge where inserting it costs the least and this cost, in an
+ * {@link IndexedHeap} ordered by cost. Inserting a city splits one edge and creates two: only the cities whose best edge
+ * was the split one are scanned again, the others only compare their cost with the two new edges.
+ *
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class CheapestInsertionEngine {
+
+    private final TspData data;
+    private final IntLinkedCycle tour;
+    private final IndexedHeap costs;
+
+    // City after which each outside city is best inserted, the best edge goes from it to its successor
+    private final int[] bestAfter;
+
+    // Cities outside the tour and their position in this array, to update them after each insertion
+    private final int[] outside;
+    private final int[] outsidePositions;
+    private int outsideCount;
+
+    // The cities of the tour in order and the length of the edge leaving each of them, gathered when a city is scanned
+    private final int[] tourBuffer;
+    private final int[] edgeBuffer;
+    private boolean tourGathered;
+
+    // Distances from the inserted city to the outside cities, and from a scanned city to the cities of the tour
+    private final int[] distanceBuffer;
+    private final int[] tourDistanceBuffer;
+
+    /**
+     * Create an engine without any city to insert.
+     * @param data The TspData used to get the distances
+     * @param tour The tour in which the cities will be inserted, it must not be empty and must only be modified by the engine
+     */
+    public CheapestInsertionEngine(TspData data, IntLinkedCycle tour) {
+        this.data = data;
+        this.tour = tour;
+        int nbCities = data.getNumberOfCities();
+        costs = new IndexedHeap(nbCities);
+        bestAfter = new int[nbCities];
+        outside = new int[nbCities];
+        outsidePositions = new int[nbCities];
+        tourBuffer = new int[nbCities];
+        edgeBuffer = new int[nbCities];
+        distanceBuffer = new int[nbCities];
+        tourDistanceBuffer = new int[nbCities];
+    }
+
+    /**
+     * Add a city to insert, its best insertion is found by scanning the whole tour.
+     * @param city A city outside the tour, not already added
+     */
+    public void add(int city) {
+        outsidePositions[city] = outsideCount;
+        outside[outsideCount++] = city;
+        scan(city);
+    }
+
+    /**
+     * @return True if there is no more city to insert
+     */
+    public boolean isEmpty() {
+        return costs.isEmpty();
+    }
+
+    /**
+     * @return The city whose insertion is the cheapest, the engine must not be empty
+     */
+    public int getCheapestCity() {
+        return costs.peek();
+    }
+
+    /**
+     * @param city A city to insert
+     * @return The cost of its cheapest insertion in the current tour
+     */
+    public int getCost(int city) {
+        return costs.getKey(city);
+    }
+
+    /**
+     * Insert a city at its cheapest position and update the insertions of the other cities.
+     * @param city A city to insert
+     * @return The cost of the insertion, that is the increase of the length of the tour
+     */
+    public int insert(int city) {
+        int cost = costs.getKey(city);
+        int before = bestAfter[city];
+        int after = tour.getNext(before);
+
+        costs.remove(city);
+        int last = outside[--outsideCount];
+        outside[outsidePositions[city]] = last;
+        outsidePositions[last] = outsidePositions[city];
+
+        tour.insertAfter(before, city);
+        tourGathered = false;
+        update(city, before, after);
+        return cost;
+    }
+
+    /**
+     * Update the cities outside the tour after the edge (before, after) has been split by the inserted city.
+     * @param inserted  The city just inserted
+     * @param before    The city before it in the tour
+     * @param after     The city after it in the tour
+     */
+    private void update(int inserted, int before, int after) {
+        data.distancesFrom(inserted, outside, outsideCount, distanceBuffer);
+        int beforeEdge = data.getDistance(before, inserted);
+        int afterEdge = data.getDistance(inserted, after);
+
+        for (int k = 0; k < outsideCount; ++k) {
+            int city = outside[k];
+            if (bestAfter[city] == before) {
+                // The best edge doesn't exist anymore, the whole tour must be scanned again
+                scan(city);
+                continue;
+            }
+            int distance = distanceBuffer[k];
+            if (costs.improveKey(city, data.getDistance(city, before) + distance - beforeEdge)) {
+                bestAfter[city] = before;
+            }
+            if (costs.improveKey(city, distance + data.getDistance(city, after) - afterEdge)) {
+                bestAfter[city] = inserted;
+            }
+        }
+    }
+
+    /**
+     * Find the cheapest insertion of a city by evaluating every edge of the tour.
+     * @param city A city outside the tour
+     */
+    private void scan(int city) {
+        int count = tour.size();
+        if (!tourGathered) {
+            int current = tour.getFirst();
+            for (int k = 0; k < count; ++k) {
+                int next = tour.getNext(current);
+                tourBuffer[k] = current;
+                edgeBuffer[k] = data.getDistance(current, next);
+                current = next;
+            }
+            tourGathered = true;
+        }
+
+        data.distancesFrom(city, tourBuffer, count, tourDistanceBuffer);
+
+        int bestCost = Integer.MAX_VALUE;
+        int bestPosition = 0;
+        for (int k = 0; k < count; ++k) {
+            int next = k + 1 < count ? k + 1 : 0; // Loop back to the start
+            int cost = tourDistanceBuffer[k] + tourDistanceBuffer[next] - edgeBuffer[k];
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestPosition = k;
+            }
+        }
+
+        bestAfter[city] = tourBuffer[bestPosition];
+        costs.put(city, bestCost);
+    }
+}
@@ -11,9 +11,4 @@ public class ClosestFirstInsert extends DistanceBasedInsert {
     boolean cityDistanceSelection(int d1, int d2) {
         return d1 < d2;
     }
-
-    @Override
-    int getMinOrMax() {
-        return Integer.MAX_VALUE;
-    }
 }
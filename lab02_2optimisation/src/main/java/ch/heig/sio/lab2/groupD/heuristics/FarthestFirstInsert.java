@@ -10,9 +10,4 @@ public class FarthestFirstInsert extends DistanceBasedInsert{
     boolean cityDistanceSelection(int d1, int d2) {
         return d1 > d2;
     }
-
-    @Override
-    int getMinOrMax() {
-        return Integer.MIN_VALUE;
-    }
 }
@@ -2,28 +2,64 @@ package ch.heig.sio.lab2.groupD.heuristics;
 
 import ch.heig.sio.lab2.display.ObservableTspConstructiveHeuristic;
 import ch.heig.sio.lab2.display.TspHeuristicObserver;
-import ch.heig.sio.lab2.groupD.Utilities.OptimizedLinkedList;
+import ch.heig.sio.lab2.groupD.Utilities.IndexedHeap;
+import ch.heig.sio.lab2.groupD.Utilities.IntLinkedCycle;
 import ch.heig.sio.lab2.tsp.Edge;
+import ch.heig.sio.lab2.tsp.KdTree;
 import ch.heig.sio.lab2.tsp.TspData;
 import ch.heig.sio.lab2.tsp.TspTour;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 
 
 /**
  * The abstract class for the heuristic implemented.
  * It contains the logic for inserting a city in the tour and updating the GUI.
+ * By default, a city is inserted on the best edge of the whole tour. The heuristics implementing
+ * {@link PrunedInsertion} can evaluate only the edges touching the nearest cities of the tour, see
+ * {@link #pruneInsertion}.
  * @author Edwin Häffner
  * @author Arthur Junod
  */
 public abstract class GenericConstructiveHeuristic implements ObservableTspConstructiveHeuristic {
 
 
-    OptimizedLinkedList<Integer> cycleCities;
+    IntLinkedCycle cycleCities;
     int distance;
 
+    // Buffers reused by the bulk distance computations, sized to the number of cities
+    int[] cityBuffer;
+    int[] distanceBuffer;
+
+    // Pruned insertion, see pruneInsertion()
+    private int insertionNeighbours;
+    private boolean exactFallback;
+    // The cities of the tour, to find the nearest ones of a city to insert
+    private KdTree tourTree;
+    // The length of the edge leaving each city of the tour, the longest first
+    private IndexedHeap edgeLengths;
+    private int[] neighbourBuffer;
+
+    // The best insertion found for the city being inserted: the city after which to insert it and the cost
+    private int bestAfter;
+    private int bestCost;
+
+    /**
+     * Configure the pruned insertion used by {@link #insertCity}, for the heuristics implementing
+     * {@link PrunedInsertion}.
+     * @param neighbours    Number of nearest cities of the tour whose edges are evaluated, 0 to scan the whole tour
+     * @param exactFallback If true, the whole tour is scanned when an edge farther than the nearest cities might be better
+     * @see PrunedInsertion#setPrunedInsertion
+     */
+    void pruneInsertion(int neighbours, boolean exactFallback) {
+        if (neighbours < 0) {
+            throw new IllegalArgumentException("neighbours should not be negative.");
+        }
+        this.insertionNeighbours = neighbours;
+        this.exactFallback = exactFallback;
+    }
+
     /**
      * Compute a tour using the chosen heuristic in the subclass.
      * @param data              Data of problem instance
@@ -37,97 +73,182 @@ public abstract class GenericConstructiveHeuristic implements ObservableTspConst
         distance = 0;
         int nbCities = data.getNumberOfCities();
 
-        cycleCities = new OptimizedLinkedList<>();
-        int[] finalCycle = new int[nbCities];
+        cycleCities = new IntLinkedCycle(nbCities);
+        cityBuffer = new int[nbCities];
+        distanceBuffer = new int[nbCities];
 
         //Adding the start city
         cycleCities.add(startCityIndex);
+        initPrunedInsertion(data, startCityIndex);
 
         //Call the insertLogic of the subclass
         insertLogic(data, startCityIndex, observer);
+        tourTree = null;
+        edgeLengths = null;
 
-        //Populate the finalCycle array
-        OptimizedLinkedList.Node<Integer> currNode = cycleCities.getFirst();
-        for(int i = 0; i < nbCities; ++i){
-            finalCycle[i] = currNode.getValue();
-            currNode = currNode.getNext();
-        }
-
-        return new TspTour(data, finalCycle, distance);
+        return new TspTour(data, cycleCities.toArray(), distance);
     }
 
     public abstract void insertLogic(TspData data, int startCityIndex, TspHeuristicObserver observer);
 
     /**
      * Calculate the edges of the tour, used to display the tour in the GUI.
+     * The edges are only created when the iterator is traversed, so observers that don't display every step, like the
+     * one of headless runs, cost nothing. The iterator must be traversed before the tour changes, that is during the
+     * update of the observer.
      * @return An iterator over the edges of the tour
      */
     public Iterator<Edge> calculateEdges() {
-        List<Edge> res = new ArrayList<>();
-        OptimizedLinkedList.Node<Integer> currentNode = cycleCities.getFirst();
-
-        if (currentNode == null) {
-            return res.iterator();
-        }
-
-        OptimizedLinkedList.Node<Integer> firstNode = currentNode;
-
-        // Loop over the cities in the tour to create the edges
-        do {
-            OptimizedLinkedList.Node<Integer> nextNode = currentNode.getNext();
-            if (nextNode == null) {
-                nextNode = firstNode; // Loop back to the start
+        IntLinkedCycle cycle = cycleCities;
+        return new Iterator<>() {
+            // Loop over the cities in the tour to create the edges, the list is circular
+            private int city = cycle.getFirst();
+            private int remaining = cycle.size();
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
             }
-            res.add(new Edge(currentNode.getValue(), nextNode.getValue()));
-            currentNode = nextNode;
 
-        } while (currentNode != firstNode);
+            @Override
+            public Edge next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int from = city;
+                city = cycle.getNext(city);
+                --remaining;
+                return new Edge(from, city);
+            }
+        };
+    }
 
-        return res.iterator();
+    /**
+     * Build the index of the cities of the tour used by the pruned insertion, if it is enabled.
+     * @param data              The TspData of the tour
+     * @param startCityIndex    The only city of the tour
+     */
+    private void initPrunedInsertion(TspData data, int startCityIndex) {
+        tourTree = null;
+        edgeLengths = null;
+        if (insertionNeighbours == 0) {
+            return;
+        }
+        try {
+            tourTree = KdTree.of(data);
+        } catch (IllegalArgumentException e) {
+            return; // The metric isn't planar, the whole tour is scanned
+        }
+        tourTree.deleteAll();
+        tourTree.restore(startCityIndex);
+        neighbourBuffer = new int[insertionNeighbours];
+        if (exactFallback) {
+            edgeLengths = new IndexedHeap(data.getNumberOfCities(), IndexedHeap.Order.MAX);
+            edgeLengths.put(startCityIndex, 0);
+        }
     }
 
     /**
      * Insert a city at the optimal position in the tour.
+     * With the pruned insertion, the position is the best one among the edges touching the nearest cities of the tour.
      * @param index the index of the city to insert
      * @param data  the TspData object containing the distances
      */
     public void insertCity(int index, TspData data) {
 
-        // Find the shortest distance between two already existing vertices
-        int bestDistance = Integer.MAX_VALUE;
-        OptimizedLinkedList.Node<Integer> bestNode = null;
-
-        OptimizedLinkedList.Node<Integer> currentNode = cycleCities.getFirst();
-        if (currentNode == null) {
+        if (cycleCities.isEmpty()) {
             return; // No city in the tour yet
         }
 
-        OptimizedLinkedList.Node<Integer> firstNode = currentNode;
-        do {
+        if (tourTree == null || !findPrunedInsertion(index, data)) {
+            findBestInsertion(index, data);
+        }
 
-            OptimizedLinkedList.Node<Integer> nextNode = currentNode.getNext();
-            if (nextNode == null) {
-                nextNode = firstNode; // Loop back to the start
+        // The best distance has been found, insert the city now
+        int after = cycleCities.getNext(bestAfter);
+        cycleCities.insertAfter(bestAfter, index);
+        distance += bestCost;
+
+        if (tourTree != null) {
+            tourTree.restore(index);
+            if (edgeLengths != null) {
+                edgeLengths.put(bestAfter, data.getDistance(bestAfter, index));
+                edgeLengths.put(index, data.getDistance(index, after));
             }
+        }
+    }
 
-            int calculatedDist = data.getDistance(currentNode.getValue(), index) +
-                    data.getDistance(index, nextNode.getValue()) -
-                    data.getDistance(currentNode.getValue(), nextNode.getValue());
+    /**
+     * Find the best insertion of a city among the edges touching its nearest cities in the tour.
+     * @param index the index of the city to insert
+     * @param data  the TspData object containing the distances
+     * @return False if the exact fallback is enabled and an edge farther from the city might be better
+     */
+    private boolean findPrunedInsertion(int index, TspData data) {
+        int count = tourTree.nearest(index, neighbourBuffer.length, neighbourBuffer);
+
+        bestCost = Integer.MAX_VALUE;
+        for (int k = 0; k < count; ++k) {
+            int city = neighbourBuffer[k];
+            int previous = cycleCities.getPrevious(city);
+            int next = cycleCities.getNext(city);
+            int cityDistance = data.getDistance(index, city);
+
+            int cost = data.getDistance(index, previous) + cityDistance - data.getDistance(previous, city);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestAfter = previous;
+            }
+            cost = cityDistance + data.getDistance(index, next) - data.getDistance(city, next);
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestAfter = city;
+            }
+        }
+
+        if (edgeLengths == null || count == cycleCities.size()) {
+            return true; // No check asked, or every edge has been evaluated
+        }
+        // The distances grow with the distances between the coordinates, so the ends of the edges not evaluated are at
+        // least as far as the farthest neighbour, and inserting on such an edge costs at least 2 * radius - its length
+        long radius = data.getDistance(index, neighbourBuffer[count - 1]);
+        return 2 * radius - edgeLengths.getKey(edgeLengths.peek()) >= bestCost;
+    }
 
-            // If the distance is better, update the best distance and node
+    /**
+     * Find the best insertion of a city among all the edges of the tour.
+     * The distances from the city to every city of the tour are computed in a single bulk call.
+     * @param index the index of the city to insert
+     * @param data  the TspData object containing the distances
+     */
+    private void findBestInsertion(int index, TspData data) {
+        // Gather the cities of the tour in order
+        int count = cycleCities.size();
+        int city = cycleCities.getFirst();
+        for (int k = 0; k < count; ++k) {
+            cityBuffer[k] = city;
+            city = cycleCities.getNext(city);
+        }
+        data.distancesFrom(index, cityBuffer, count, distanceBuffer);
+
+        // Find the shortest distance between two already existing vertices
+        int bestDistance = Integer.MAX_VALUE;
+        int bestPosition = 0;
+        for (int k = 0; k < count; ++k) {
+            int next = k + 1 < count ? k + 1 : 0; // Loop back to the start
+            int calculatedDist = distanceBuffer[k] + distanceBuffer[next] -
+                    data.getDistance(cityBuffer[k], cityBuffer[next]);
+
+            // If the distance is better, update the best distance and position
             if (calculatedDist < bestDistance) {
                 bestDistance = calculatedDist;
-                bestNode = currentNode;
+                bestPosition = k;
             }
-
-            currentNode = nextNode;
-        } while (currentNode != firstNode);
-
-        // The best distance has been found, insert the city now
-        if (bestNode != null) {
-            cycleCities.insertAfter(bestNode, index);
-            distance += bestDistance;
         }
+
+        // The buffer gives the city at the best position
+        bestAfter = cityBuffer[bestPosition];
+        bestCost = bestDistance;
     }
 
 }
@@ -0,0 +1,23 @@
+package ch.heig.sio.lab2.groupD.heuristics;
+
+import ch.heig.sio.lab2.tsp.KdTree;
+
+/**
+ * A heuristic inserting each city on the best edge of the tour, which can evaluate only the edges touching the nearest
+ * cities of the tour instead of every edge. This makes the insertion independent of the size of the tour.
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public interface PrunedInsertion {
+
+    /**
+     * Evaluate only the edges touching the nearest cities of the tour when inserting a city, instead of every edge of
+     * the tour. The nearest cities are found with a {@link KdTree}, so the metric of the data must be planar: the whole
+     * tour is scanned otherwise.
+     * @param neighbours    Number of nearest cities of the tour whose edges are evaluated, 0 to scan the whole tour
+     * @param exactFallback If true, the whole tour is scanned when an edge between two cities farther than the nearest
+     *                      ones might be better, so that the cost of each insertion is the same as without pruning
+     * @throws IllegalArgumentException If neighbours is negative
+     */
+    void setPrunedInsertion(int neighbours, boolean exactFallback);
+}
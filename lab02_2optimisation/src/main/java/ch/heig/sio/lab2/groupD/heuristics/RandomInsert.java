@@ -13,11 +13,16 @@ import java.util.Random;
  * @author Edwin Häffner
  * @author Arthur Junod
  */
-public class RandomInsert extends GenericConstructiveHeuristic{
+public class RandomInsert extends GenericConstructiveHeuristic implements PrunedInsertion {
     ArrayList<Integer> citiesToVisit;
     Random rand = new Random();
     int citiesToVisitIndex;
 
+    @Override
+    public void setPrunedInsertion(int neighbours, boolean exactFallback) {
+        pruneInsertion(neighbours, exactFallback);
+    }
+
 
     /**
      * Override the insertLogic() to insert our cities in a random order.
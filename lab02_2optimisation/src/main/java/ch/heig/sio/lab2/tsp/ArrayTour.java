@@ -0,0 +1,139 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>{@link MutableTour} stored as an array of cities and the inverse array of their positions.</p>
+ *
+ * <p>The position of a city, its successor and predecessor, and whether a city lies between two others are found in
+ * constant time. Reversing a path costs the length of the shortest of the path and of the rest of the tour, so at
+ * most {@code n / 2} swaps.</p>
+ *
+ * <p>Positions are taken modulo the size of the tour: the city following the last position is the one at position
+ * 0.</p>
+ */
+public final class ArrayTour implements MutableTour {
+  /** City at each position. */
+  private final int[] cities;
+  /** Position of each city. */
+  private final int[] positions;
+
+  /**
+   * Creates a tour visiting cities in the given order.
+   *
+   * @param tour Cities in the order of the tour, copied
+   * @throws IllegalArgumentException if the cities are not a permutation of {@code [0, tour.length[}
+   */
+  public ArrayTour(int[] tour) {
+    cities = tour.clone();
+    positions = new int[cities.length];
+    Arrays.fill(positions, -1);
+    for (int p = 0; p < cities.length; p++) {
+      int city = cities[p];
+      if (city < 0 || city >= cities.length || positions[city] != -1) {
+        throw new IllegalArgumentException("The tour is not a permutation of its cities, at position " + p + ".");
+      }
+      positions[city] = p;
+    }
+  }
+
+  /**
+   * Creates a tour visiting cities in the order of a solution.
+   *
+   * @param tour Cities in the order of the tour
+   * @throws IllegalArgumentException if the cities are not a permutation of {@code [0, tour.size()[}
+   */
+  public ArrayTour(TspTour.View tour) {
+    this(tour.copy());
+  }
+
+  @Override
+  public int size() {
+    return cities.length;
+  }
+
+  /**
+   * @param position Position in the tour
+   * @return City at this position
+   * @throws IndexOutOfBoundsException if {@code position} isn't in {@code [0, size()[}
+   */
+  public int city(int position) {
+    return cities[Objects.checkIndex(position, cities.length)];
+  }
+
+  @Override
+  public int position(int city) {
+    return positions[Objects.checkIndex(city, positions.length)];
+  }
+
+  @Override
+  public int next(int city) {
+    int p = position(city) + 1;
+    return cities[p == cities.length ? 0 : p];
+  }
+
+  @Override
+  public int prev(int city) {
+    int p = position(city);
+    return cities[p == 0 ? cities.length - 1 : p - 1];
+  }
+
+  @Override
+  public boolean between(int a, int b, int c) {
+    int pa = position(a);
+    int pb = position(b);
+    int pc = position(c);
+    if (pa <= pc) {
+      return pa <= pb && pb <= pc;
+    }
+    return pb >= pa || pb <= pc;
+  }
+
+  /**
+   * <p>Reverses the path from position {@code i} to position {@code j}, following the tour and wrapping after the
+   * last position.</p>
+   *
+   * <p>When the path holds more than half the cities, the rest of the tour is reversed instead: the resulting cycle
+   * is the same, but traversed in the other direction, so positions, {@link #next} and {@link #prev} must be read
+   * again after a reversal.</p>
+   *
+   * @param i Position of the first city of the path
+   * @param j Position of the last city of the path
+   * @throws IndexOutOfBoundsException if a position isn't in {@code [0, size()[}
+   */
+  public void reverse(int i, int j) {
+    int n = cities.length;
+    Objects.checkIndex(i, n);
+    Objects.checkIndex(j, n);
+    int length = j >= i ? j - i + 1 : j - i + 1 + n;
+    if (2 * length > n) {
+      // Reverse the complement, from j + 1 to i - 1
+      int from = j + 1 == n ? 0 : j + 1;
+      j = i == 0 ? n - 1 : i - 1;
+      i = from;
+      length = n - length;
+    }
+
+    for (int k = length / 2; k > 0; k--) {
+      int ci = cities[i];
+      int cj = cities[j];
+      cities[i] = cj;
+      positions[cj] = i;
+      cities[j] = ci;
+      positions[ci] = j;
+      i = i + 1 == n ? 0 : i + 1;
+      j = j == 0 ? n - 1 : j - 1;
+    }
+  }
+
+  @Override
+  public void reversePath(int a, int b) {
+    reverse(position(a), position(b));
+  }
+
+  @Override
+  public int[] toArray() {
+    return cities.clone();
+  }
+}
@@ -0,0 +1,101 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * Max-heap keeping the {@code capacity} smallest cities offered, ordered by key then by index. Used to select the
+ * nearest cities without sorting all the candidates.
+ */
+final class BoundedHeap {
+  private final double[] keys;
+  private final int[] cities;
+  private int size;
+
+  BoundedHeap(int capacity) {
+    keys = new double[capacity];
+    cities = new int[capacity];
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  int capacity() {
+    return keys.length;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isFull() {
+    return size == keys.length;
+  }
+
+  /**
+   * @return Largest key kept, the heap must not be empty
+   */
+  double maxKey() {
+    return keys[0];
+  }
+
+  void offer(double key, int city) {
+    if (size < keys.length) {
+      // Sift up from the last position
+      int hole = size++;
+      while (hole > 0) {
+        int parent = (hole - 1) >>> 1;
+        if (!greater(key, city, keys[parent], cities[parent])) {
+          break;
+        }
+        keys[hole] = keys[parent];
+        cities[hole] = cities[parent];
+        hole = parent;
+      }
+      keys[hole] = key;
+      cities[hole] = city;
+    } else if (greater(keys[0], cities[0], key, city)) {
+      siftDown(key, city, size);
+    }
+  }
+
+  /**
+   * Replaces the root by the given entry and moves it down to its place among the first {@code end} entries.
+   */
+  private void siftDown(double key, int city, int end) {
+    int hole = 0;
+    while (true) {
+      int child = 2 * hole + 1;
+      if (child >= end) {
+        break;
+      }
+      if (child + 1 < end && greater(keys[child + 1], cities[child + 1], keys[child], cities[child])) {
+        child++;
+      }
+      if (!greater(keys[child], cities[child], key, city)) {
+        break;
+      }
+      keys[hole] = keys[child];
+      cities[hole] = cities[child];
+      hole = child;
+    }
+    keys[hole] = key;
+    cities[hole] = city;
+  }
+
+  /**
+   * Writes the cities kept in increasing order and empties the heap.
+   *
+   * @param out    Destination array
+   * @param offset Position of the first city in {@code out}
+   */
+  void drain(int[] out, int offset) {
+    while (size > 0) {
+      out[offset + size - 1] = cities[0];
+      size--;
+      siftDown(keys[size], cities[size], size);
+    }
+  }
+
+  private static boolean greater(double key1, int city1, double key2, int city2) {
+    return key1 > key2 || (key1 == key2 && city1 > city2);
+  }
+}
@@ -0,0 +1,127 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>A {@link DistanceMatrix} storing the upper triangle of the matrix, with the same layout as
+ * {@link PackedDistanceMatrix}, in buffers outside the heap: either direct buffers
+ * ({@link DistanceBackend#OFF_HEAP}) or a read-only mapping of a file ({@link DistanceBackend#MAPPED}).</p>
+ *
+ * <p>A buffer can't hold more than 2 GiB, so the matrix is split in chunks of {@link #CHUNK_SIZE} entries.
+ * The memory is released when the matrix is garbage collected.</p>
+ */
+final class BufferDistanceMatrix extends DistanceMatrix {
+  private static final int CHUNK_SHIFT = 28;
+  /** Number of entries per chunk (1 GiB of ints). */
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final IntBuffer[] chunks;
+  /**
+   * Offset of each row, such that the distance between {@code i < j} is stored at index
+   * {@code rowOffsets[i] + j} of the concatenated chunks.
+   */
+  private final long[] rowOffsets;
+  private final DistanceBackend backend;
+
+  private BufferDistanceMatrix(IntBuffer[] chunks, int n, DistanceBackend backend) {
+    this.chunks = chunks;
+    this.backend = backend;
+
+    rowOffsets = new long[n];
+    long rowStart = 0;
+    for (int i = 0; i < n; i++) {
+      rowOffsets[i] = rowStart - i - 1;
+      rowStart += n - i - 1;
+    }
+  }
+
+  /**
+   * Allocates an empty matrix in direct buffers.
+   *
+   * @param n Number of cities
+   * @return An empty matrix
+   * @throws OutOfMemoryError if the direct buffers can't be allocated
+   */
+  static BufferDistanceMatrix allocateDirect(int n) {
+    IntBuffer[] chunks = new IntBuffer[chunkCount(n)];
+    for (int c = 0; c < chunks.length; c++) {
+      chunks[c] = ByteBuffer.allocateDirect(chunkEntries(n, c) * Integer.BYTES)
+          .order(ByteOrder.nativeOrder())
+          .asIntBuffer();
+    }
+    return new BufferDistanceMatrix(chunks, n, DistanceBackend.OFF_HEAP);
+  }
+
+  /**
+   * Maps a matrix stored in a file, read-only. The mapping stays valid once the channel is closed.
+   *
+   * @param channel  Channel of the file
+   * @param position Position of the first entry of the matrix in the file
+   * @param n        Number of cities
+   * @param order    Byte order of the entries in the file
+   * @return The mapped matrix
+   * @throws IOException if the file can't be mapped
+   */
+  static BufferDistanceMatrix map(FileChannel channel, long position, int n, ByteOrder order) throws IOException {
+    IntBuffer[] chunks = new IntBuffer[chunkCount(n)];
+    for (int c = 0; c < chunks.length; c++) {
+      long start = position + ((long) c << CHUNK_SHIFT) * Integer.BYTES;
+      chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, start, (long) chunkEntries(n, c) * Integer.BYTES)
+          .order(order)
+          .asIntBuffer();
+    }
+    return new BufferDistanceMatrix(chunks, n, DistanceBackend.MAPPED);
+  }
+
+  /**
+   * @param n Number of cities
+   * @return Number of bytes of a matrix for {@code n} cities
+   */
+  static long sizeInBytes(int n) {
+    return entries(n) * Integer.BYTES;
+  }
+
+  private static long entries(int n) {
+    return (long) n * (n - 1) / 2;
+  }
+
+  private static int chunkCount(int n) {
+    return (int) ((entries(n) + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+  }
+
+  private static int chunkEntries(int n, int chunk) {
+    return (int) Math.min(CHUNK_SIZE, entries(n) - ((long) chunk << CHUNK_SHIFT));
+  }
+
+  @Override
+  int get(int i, int j) {
+    long index;
+    if (i < j) {
+      index = rowOffsets[i] + j;
+    } else if (i > j) {
+      index = rowOffsets[j] + i;
+    } else {
+      return 0;
+    }
+    return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) index & CHUNK_MASK);
+  }
+
+  /**
+   * @throws java.nio.ReadOnlyBufferException if the matrix is mapped from a file
+   */
+  @Override
+  void set(int i, int j, int distance) {
+    long index = rowOffsets[i] + j;
+    chunks[(int) (index >>> CHUNK_SHIFT)].put((int) index & CHUNK_MASK, distance);
+  }
+
+  @Override
+  DistanceBackend backend() {
+    return backend;
+  }
+}
@@ -0,0 +1,201 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Objects;
+
+/**
+ * <p>The k nearest neighbours of each city of an instance, sorted by increasing distance.</p>
+ *
+ * <p>Lists are stored in a single array of {@code n * k} city indexes, and are obtained from
+ * {@link TspData#getCandidateLists}, which computes them once and shares them between all their users. Heuristics can
+ * thus restrict their moves to the candidate neighbours of a city instead of considering all the cities.</p>
+ *
+ * <p>For planar metrics, the neighbours are found with a uniform grid over the coordinates: a city only looks at the
+ * cells around its own until no farther cell can hold a closer city. Other metrics select the neighbours among all
+ * the distances of each city. Ties between neighbours at the same distance are broken by the smallest index.</p>
+ */
+public final class CandidateLists {
+  /** Target number of cities per cell of the grid. */
+  private static final int CITIES_PER_CELL = 2;
+
+  /** Neighbours of city {@code i} start at {@code i * stride}. */
+  private final int[] neighbors;
+  /** Length of the stored lists, at least {@link #k}. */
+  private final int stride;
+  private final int k;
+
+  private CandidateLists(int[] neighbors, int stride, int k) {
+    this.neighbors = neighbors;
+    this.stride = stride;
+    this.k = k;
+  }
+
+  /**
+   * Computes the candidate lists of an instance.
+   *
+   * @param kernel Kernel computing the distances between cities
+   * @param n      Number of cities
+   * @param k      Number of neighbours per city, less than {@code n}
+   * @return The lists
+   */
+  static CandidateLists build(DistanceKernel kernel, int n, int k) {
+    int[] neighbors;
+    try {
+      neighbors = new int[Math.multiplyExact(n, k)];
+    } catch (ArithmeticException e) {
+      throw new OutOfMemoryError("Out of memory error. Candidate lists of " + n + " cities are too large.");
+    }
+
+    if (k > 0) {
+      if (kernel instanceof DistanceKernel.Planar planar) {
+        searchGrid(planar.xs, planar.ys, k, neighbors);
+      } else {
+        searchAll(kernel, n, k, neighbors);
+      }
+    }
+    return new CandidateLists(neighbors, k, k);
+  }
+
+  /**
+   * @param k Number of neighbours per city, at most {@link #k()}
+   * @return Lists holding the first {@code k} neighbours of these lists, sharing their storage
+   */
+  CandidateLists truncate(int k) {
+    return k == this.k ? this : new CandidateLists(neighbors, stride, k);
+  }
+
+  /**
+   * @return Number of neighbours of each city
+   */
+  public int k() {
+    return k;
+  }
+
+  /**
+   * @return Number of cities
+   */
+  public int getNumberOfCities() {
+    return stride == 0 ? 0 : neighbors.length / stride;
+  }
+
+  /**
+   * Returns a neighbour of a city.
+   *
+   * @param city City index
+   * @param rank Rank of the neighbour, 0 being the nearest one
+   * @return Index of the neighbour
+   * @throws IndexOutOfBoundsException If {@code rank} isn't in {@code [0, k[} or {@code city} is out of bounds
+   */
+  public int get(int city, int rank) {
+    Objects.checkIndex(rank, k);
+    return neighbors[Objects.checkIndex(city, neighbors.length / stride) * stride + rank];
+  }
+
+  /**
+   * Finds the neighbours of each city by walking through the cells of a grid around it, in rings of increasing
+   * size. Cities outside the rings {@code 0} to {@code r} are at least {@code r * cellSize} away, so the search stops
+   * as soon as the k nearest cities found so far are closer than that.
+   */
+  private static void searchGrid(double[] xs, double[] ys, int k, int[] neighbors) {
+    int n = xs.length;
+    double minX = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      minX = Math.min(minX, xs[i]);
+      maxX = Math.max(maxX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+
+    // Square cells, never more than a few per city even when the cities are nearly aligned
+    double width = maxX - minX;
+    double height = maxY - minY;
+    int targetCells = Math.max(1, n / CITIES_PER_CELL);
+    double cellSize = Math.max(Math.sqrt(width * height / targetCells), Math.max(width, height) / targetCells);
+    if (cellSize == 0) {
+      cellSize = 1;
+    }
+    int columns = (int) (width / cellSize) + 1;
+    int rows = (int) (height / cellSize) + 1;
+
+    // Cities sorted by cell, cellStart[c] being the position of the first city of cell c
+    int[] cellOf = new int[n];
+    int[] cellStart = new int[columns * rows + 1];
+    for (int i = 0; i < n; i++) {
+      int column = Math.min(columns - 1, (int) ((xs[i] - minX) / cellSize));
+      int row = Math.min(rows - 1, (int) ((ys[i] - minY) / cellSize));
+      cellOf[i] = row * columns + column;
+      cellStart[cellOf[i] + 1]++;
+    }
+    for (int c = 0; c < columns * rows; c++) {
+      cellStart[c + 1] += cellStart[c];
+    }
+    int[] cities = new int[n];
+    int[] next = cellStart.clone();
+    for (int i = 0; i < n; i++) {
+      cities[next[cellOf[i]]++] = i;
+    }
+
+    BoundedHeap heap = new BoundedHeap(k);
+    int maxRing = Math.max(columns, rows);
+    for (int i = 0; i < n; i++) {
+      int column = cellOf[i] % columns;
+      int row = cellOf[i] / columns;
+      double x = xs[i];
+      double y = ys[i];
+      heap.clear();
+
+      for (int ring = 0; ring <= maxRing; ring++) {
+        double reach = (ring - 1) * cellSize;
+        if (ring > 0 && heap.isFull() && heap.maxKey() < reach * reach) {
+          break;
+        }
+        int top = Math.max(0, row - ring);
+        int bottom = Math.min(rows - 1, row + ring);
+        for (int r = top; r <= bottom; r++) {
+          // Only the first and last rows of the ring are scanned entirely
+          int step = (r == row - ring || r == row + ring) ? 1 : 2 * ring;
+          for (int c = column - ring; c <= column + ring; c += step) {
+            if (c < 0 || c >= columns) {
+              continue;
+            }
+            int cell = r * columns + c;
+            for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+              int j = cities[p];
+              if (j != i) {
+                double dx = xs[j] - x;
+                double dy = ys[j] - y;
+                heap.offer(dx * dx + dy * dy, j);
+              }
+            }
+          }
+        }
+      }
+      heap.drain(neighbors, i * k);
+    }
+  }
+
+  /**
+   * Finds the neighbours of each city among all the others.
+   */
+  private static void searchAll(DistanceKernel kernel, int n, int k, int[] neighbors) {
+    int[] targets = new int[n];
+    for (int j = 0; j < n; j++) {
+      targets[j] = j;
+    }
+    int[] distances = new int[n];
+
+    BoundedHeap heap = new BoundedHeap(k);
+    for (int i = 0; i < n; i++) {
+      kernel.distancesFrom(i, targets, n, distances);
+      heap.clear();
+      for (int j = 0; j < n; j++) {
+        if (j != i) {
+          heap.offer(distances[j], j);
+        }
+      }
+      heap.drain(neighbors, i * k);
+    }
+  }
+}
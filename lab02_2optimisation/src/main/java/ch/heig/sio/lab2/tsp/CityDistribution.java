@@ -0,0 +1,13 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>Spatial distributions of the cities of the instances created by {@link TspGenerator}.</p>
+ */
+public enum CityDistribution {
+  /** Cities uniformly distributed in the square. */
+  UNIFORM,
+  /** Cities normally distributed around cluster centers, themselves uniformly distributed in the square. */
+  CLUSTERED,
+  /** One city per cell of a regular grid covering the square, moved randomly inside its cell. */
+  JITTERED_GRID
+}
@@ -0,0 +1,50 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>A {@link DistanceMatrix} with the same layout as {@link PackedDistanceMatrix}, storing each distance as an
+ * unsigned 16-bit {@code char}.</p>
+ *
+ * <p>Uses half the memory of {@link PackedDistanceMatrix}, so twice as many distances fit in the caches of the
+ * processor. Only usable when no distance exceeds {@link #MAX_DISTANCE}.</p>
+ */
+final class CompactDistanceMatrix extends DistanceMatrix {
+  /** Largest distance that can be stored. */
+  static final int MAX_DISTANCE = Character.MAX_VALUE;
+
+  private final char[] distances;
+  /**
+   * Offset of each row in {@link #distances}, such that the distance between {@code i < j} is stored at
+   * {@code distances[rowOffsets[i] + j]}.
+   */
+  private final int[] rowOffsets;
+
+  /**
+   * @param n Number of cities, at most {@link PackedDistanceMatrix#MAX_CITIES}
+   * @throws OutOfMemoryError if the matrix can't be allocated
+   */
+  CompactDistanceMatrix(int n) {
+    rowOffsets = PackedDistanceMatrix.rowOffsets(n);
+    distances = new char[PackedDistanceMatrix.entries(n)];
+  }
+
+  @Override
+  int get(int i, int j) {
+    if (i < j) {
+      return distances[rowOffsets[i] + j];
+    } else if (i > j) {
+      return distances[rowOffsets[j] + i];
+    } else {
+      return 0;
+    }
+  }
+
+  @Override
+  void set(int i, int j, int distance) {
+    distances[rowOffsets[i] + j] = (char) distance;
+  }
+
+  @Override
+  DistanceBackend backend() {
+    return DistanceBackend.COMPACT;
+  }
+}
@@ -0,0 +1,57 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>A {@link DistanceStorage} that stores nothing and recomputes the distances with the {@link DistanceKernel} of
+ * the instance on each access.</p>
+ *
+ * <p>Computed distances can be kept in a memory-bounded {@link DistanceCache}.</p>
+ */
+final class ComputedDistanceStorage extends DistanceStorage {
+  private final DistanceKernel kernel;
+  /** Cache of the last computed distances, null if disabled. */
+  private final DistanceCache cache;
+
+  /**
+   * @param kernel Kernel computing the distances
+   * @param cache  Cache of the computed distances, null to disable it
+   */
+  ComputedDistanceStorage(DistanceKernel kernel, DistanceCache cache) {
+    this.kernel = kernel;
+    this.cache = cache;
+  }
+
+  @Override
+  int get(int i, int j) {
+    if (cache == null || i == j) {
+      return kernel.distance(i, j);
+    }
+
+    int d = cache.get(i, j);
+    if (d == DistanceCache.MISSING) {
+      d = kernel.distance(i, j);
+      cache.put(i, j, d);
+    }
+    return d;
+  }
+
+  /**
+   * Computes the distances in bulk with the kernel, bypassing the cache: a batch evaluates one city against many
+   * others once, so caching its results would mostly evict useful entries.
+   */
+  @Override
+  void distancesFrom(int i, int[] targets, int count, int[] out) {
+    kernel.distancesFrom(i, targets, count, out);
+  }
+
+  @Override
+  DistanceBackend backend() {
+    return DistanceBackend.COMPUTED;
+  }
+
+  /**
+   * @return Cache of the computed distances, null if disabled
+   */
+  DistanceCache cache() {
+    return cache;
+  }
+}
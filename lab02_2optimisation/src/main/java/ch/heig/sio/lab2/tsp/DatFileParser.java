@@ -0,0 +1,194 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Parser of the text format of the instances: the number of cities, followed by {@code <index> <x> <y>} for each
+ * city. Tokens are integers separated by any whitespace.</p>
+ *
+ * <p>Bytes are decoded directly from a fixed size buffer, without creating any object per token, so files of any
+ * size are streamed with constant extra memory besides the coordinates.</p>
+ */
+final class DatFileParser implements AutoCloseable {
+  private static final int MIN_CITIES = 1;
+  private static final int BUFFER_SIZE = 1 << 16;
+  /** Returned by {@link #nextInt} when the end of the file is reached before a token. */
+  private static final long NO_TOKEN = Long.MIN_VALUE;
+  /** Returned by {@link #nextInt} when the token isn't a valid integer. */
+  private static final long INVALID_TOKEN = Long.MIN_VALUE + 1;
+
+  /**
+   * Coordinates of the cities, indexed by city number.
+   *
+   * @param xs X coordinates
+   * @param ys Y coordinates
+   */
+  record Coordinates(int[] xs, int[] ys) {
+  }
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+  private DatFileParser(FileChannel channel) {
+    this.channel = channel;
+    buffer.flip();
+  }
+
+  /**
+   * Reads the coordinates of the cities from a file.
+   *
+   * @param filename name of the file to read from.
+   * @return Coordinates of the cities
+   * @throws FileNotFoundException If file can't be found.
+   * @throws TspParsingException   If file content does not conform to expected format.
+   * @throws OutOfMemoryError      If the number of cities is too large.
+   */
+  static Coordinates parse(String filename) throws FileNotFoundException {
+    FileChannel channel;
+    try {
+      channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ);
+    } catch (NoSuchFileException e) {
+      throw new FileNotFoundException(filename + " (No such file or directory)");
+    } catch (IOException e) {
+      throw new FileNotFoundException(filename + " (" + e.getMessage() + ")");
+    }
+
+    try (DatFileParser parser = new DatFileParser(channel)) {
+      return parser.parseCoordinates();
+    } catch (IOException e) {
+      throw new TspParsingException("Invalid data. Unable to read data.");
+    }
+  }
+
+  private Coordinates parseCoordinates() throws IOException {
+    // Read the number of cities
+    long numberOfCities = nextInt();
+    if (numberOfCities == NO_TOKEN) {
+      throw new TspParsingException("Invalid data. Empty data.");
+    }
+    if (numberOfCities == INVALID_TOKEN) {
+      throw new TspParsingException("Invalid data value. Invalid number of cities in first line of data file.");
+    }
+    if (numberOfCities < MIN_CITIES) {
+      throw new TspParsingException("Invalid data value. Number of cities should be at least " + MIN_CITIES + ".");
+    }
+
+    // Allocate the arrays storing the XY coordinates of the cities
+    int[] xs;
+    int[] ys;
+    try {
+      xs = new int[(int) numberOfCities];
+      ys = new int[(int) numberOfCities];
+    } catch (OutOfMemoryError e) {
+      throw new OutOfMemoryError("Out of memory error. Number of cities is too large.");
+    }
+
+    // Read the coordinates of each city
+    for (int cityReadCount = 0; cityReadCount < numberOfCities; cityReadCount++) {
+      long cityNumber = nextCityToken();
+      if (cityNumber != cityReadCount) {
+        throw new TspParsingException(
+            String.format("Invalid city number: %s expected, %s read.", cityNumber, cityReadCount));
+      }
+      xs[cityReadCount] = (int) nextCityToken();
+      ys[cityReadCount] = (int) nextCityToken();
+    }
+
+    return new Coordinates(xs, ys);
+  }
+
+  /**
+   * @return The next integer of a city line
+   * @throws TspParsingException if there is no more token or if it isn't an integer
+   */
+  private long nextCityToken() throws IOException {
+    long value = nextInt();
+    if (value == NO_TOKEN) {
+      throw new TspParsingException(
+          "Incomplete line : should follow format \"<city number> <u> <v>\""
+      );
+    }
+    if (value == INVALID_TOKEN) {
+      throw new TspParsingException("Invalid data value. City numbers and coordinates should be non negative integers.");
+    }
+    return value;
+  }
+
+  /**
+   * Reads the next token as an optionally signed decimal integer. The whole token is always consumed.
+   *
+   * @return The value of the token, {@link #NO_TOKEN} at the end of the file or {@link #INVALID_TOKEN} if the token
+   * isn't an integer in the range of {@code int}
+   */
+  private long nextInt() throws IOException {
+    int c = read();
+    while (isWhitespace(c)) {
+      c = read();
+    }
+    if (c < 0) {
+      return NO_TOKEN;
+    }
+
+    boolean negative = c == '-';
+    if (c == '-' || c == '+') {
+      c = read();
+    }
+
+    long value = 0;
+    boolean valid = c >= '0' && c <= '9';
+    while (c >= 0 && !isWhitespace(c)) {
+      if (c >= '0' && c <= '9') {
+        value = value * 10 + (c - '0');
+        // Keep consuming the token even when it overflows
+        if (value > (long) Integer.MAX_VALUE + 1) {
+          valid = false;
+          value = 0;
+        }
+      } else {
+        valid = false;
+      }
+      c = read();
+    }
+
+    if (negative) {
+      value = -value;
+    }
+    if (!valid || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+      return INVALID_TOKEN;
+    }
+    return value;
+  }
+
+  /**
+   * @return The next byte, or -1 at the end of the file
+   */
+  private int read() throws IOException {
+    if (!buffer.hasRemaining()) {
+      buffer.clear();
+      int read;
+      do {
+        read = channel.read(buffer);
+      } while (read == 0);
+      buffer.flip();
+      if (read < 0) {
+        return -1;
+      }
+    }
+    return buffer.get() & 0xFF;
+  }
+
+  private static boolean isWhitespace(int c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f' || c == 0x0B;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,141 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Objects;
+
+/**
+ * <p>Sparse graph of the edges of the Delaunay triangulation of the cities of an instance.</p>
+ *
+ * <p>The triangulation holds the edges of the minimum spanning tree and the nearest neighbour of each city, and good
+ * tours mostly use its edges, even in clustered regions where the k nearest neighbours of a city are all on the same
+ * side. It has less than 3n edges, so it can be used as a set of candidate edges for local searches, spanning trees or
+ * greedy matchings on instances too large for a distance matrix.</p>
+ *
+ * <p>The graph is undirected and stored in compressed sparse rows: the neighbours of city {@code i} are at positions
+ * {@code offsets[i]} to {@code offsets[i + 1]} of a single array, sorted by increasing distance. It is obtained from
+ * {@link TspData#getDelaunayGraph}.</p>
+ */
+public final class DelaunayGraph {
+  /** Position of the first neighbour of each city, followed by the total number of neighbours. */
+  private final int[] offsets;
+  private final int[] neighbors;
+
+  private DelaunayGraph(int[] offsets, int[] neighbors) {
+    this.offsets = offsets;
+    this.neighbors = neighbors;
+  }
+
+  /**
+   * Builds the graph of the Delaunay triangulation of cities.
+   *
+   * @param xs X coordinates of the cities
+   * @param ys Y coordinates of the cities
+   * @return The graph
+   */
+  static DelaunayGraph build(double[] xs, double[] ys) {
+    int n = xs.length;
+    DelaunayTriangulation triangulation = new DelaunayTriangulation(xs, ys);
+    int[] triangles = triangulation.triangles();
+    int[] halfedges = triangulation.halfedges();
+    int[] extraEdges = triangulation.extraEdges();
+
+    // Each edge inside the hull has two half-edges, only the one with the largest index is kept
+    int[] offsets = new int[n + 1];
+    for (int e = 0; e < triangulation.trianglesLength(); e++) {
+      if (e > halfedges[e]) {
+        offsets[triangles[e] + 1]++;
+        offsets[triangles[next(e)] + 1]++;
+      }
+    }
+    for (int k = 0; k < triangulation.extraEdgesLength(); k++) {
+      offsets[extraEdges[k] + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+
+    int[] neighbors = new int[offsets[n]];
+    int[] next = new int[n];
+    System.arraycopy(offsets, 0, next, 0, n);
+    for (int e = 0; e < triangulation.trianglesLength(); e++) {
+      if (e > halfedges[e]) {
+        int u = triangles[e];
+        int v = triangles[next(e)];
+        neighbors[next[u]++] = v;
+        neighbors[next[v]++] = u;
+      }
+    }
+    for (int k = 0; k < triangulation.extraEdgesLength(); k += 2) {
+      int u = extraEdges[k];
+      int v = extraEdges[k + 1];
+      neighbors[next[u]++] = v;
+      neighbors[next[v]++] = u;
+    }
+
+    // Rows are short, insertion sort them by distance then index
+    for (int i = 0; i < n; i++) {
+      for (int p = offsets[i] + 1; p < offsets[i + 1]; p++) {
+        int city = neighbors[p];
+        double key = squaredDistance(xs, ys, i, city);
+        int q = p - 1;
+        while (q >= offsets[i] && isFarther(squaredDistance(xs, ys, i, neighbors[q]), neighbors[q], key, city)) {
+          neighbors[q + 1] = neighbors[q--];
+        }
+        neighbors[q + 1] = city;
+      }
+    }
+    return new DelaunayGraph(offsets, neighbors);
+  }
+
+  /**
+   * @return Next half-edge in the same triangle
+   */
+  private static int next(int e) {
+    return e % 3 == 2 ? e - 2 : e + 1;
+  }
+
+  private static double squaredDistance(double[] xs, double[] ys, int i, int j) {
+    double dx = xs[i] - xs[j];
+    double dy = ys[i] - ys[j];
+    return dx * dx + dy * dy;
+  }
+
+  private static boolean isFarther(double key1, int city1, double key2, int city2) {
+    return key1 > key2 || (key1 == key2 && city1 > city2);
+  }
+
+  /**
+   * @return Number of cities
+   */
+  public int getNumberOfCities() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * @return Number of edges of the graph
+   */
+  public int getNumberOfEdges() {
+    return neighbors.length / 2;
+  }
+
+  /**
+   * @param city City index
+   * @return Number of neighbours of the city
+   * @throws IndexOutOfBoundsException If city is out of bounds
+   */
+  public int degree(int city) {
+    Objects.checkIndex(city, offsets.length - 1);
+    return offsets[city + 1] - offsets[city];
+  }
+
+  /**
+   * Returns a neighbour of a city.
+   *
+   * @param city  City index
+   * @param index Index of the neighbour, neighbours being sorted by increasing distance
+   * @return Index of the neighbour
+   * @throws IndexOutOfBoundsException If city is out of bounds, or if index isn't in {@code [0, degree(city)[}
+   */
+  public int neighbor(int city, int index) {
+    return neighbors[offsets[city] + Objects.checkIndex(index, degree(city))];
+  }
+}
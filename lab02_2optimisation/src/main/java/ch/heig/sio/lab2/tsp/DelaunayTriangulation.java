@@ -0,0 +1,545 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Arrays;
+
+/**
+ * <p>Delaunay triangulation of points in the plane, computed with a sweep hull: points are added by increasing
+ * distance to the center of a seed triangle, each one being connected to the part of the convex hull it sees, and
+ * triangles are flipped until they satisfy the Delaunay condition again. The convex hull is a linked list whose edges
+ * are found through a hash of their angle around the center, for an expected O(n log n) time.</p>
+ *
+ * <p>Triangles are stored as half-edges: {@code triangles[e]} is the point where half-edge {@code e} starts, the
+ * three half-edges of a triangle being {@code 3t}, {@code 3t + 1} and {@code 3t + 2}, and {@code halfedges[e]} is the
+ * opposite half-edge in the adjacent triangle, -1 on the convex hull. Orientations are given with the y axis pointing
+ * down, as on the display: triangles are counter-clockwise.</p>
+ *
+ * <p>Points that can't be triangulated (duplicates, or all the points being collinear) are linked to a point already
+ * handled instead, so that every point has at least one edge. Predicates are evaluated without extended precision,
+ * and are exact for integer coordinates up to 2<sup>22</sup> except for the circle tests of nearly cocircular points,
+ * which may leave a triangulation that is not strictly Delaunay but still valid.</p>
+ */
+final class DelaunayTriangulation {
+  /** Largest distance between points considered equal. */
+  private static final double EPSILON = Math.ulp(1.0) * 2;
+
+  private final double[] xs;
+  private final double[] ys;
+
+  /** Point where each half-edge starts. */
+  private int[] triangles;
+  /** Opposite half-edge of each half-edge, -1 on the convex hull. */
+  private int[] halfedges;
+  private int trianglesLength;
+
+  /** Edges that are not part of a triangle, as pairs of points. */
+  private int[] extraEdges = new int[16];
+  private int extraEdgesLength;
+
+  /** Convex hull as a circular doubly-linked list of points. */
+  private final int[] hullPrev;
+  private final int[] hullNext;
+  /** Half-edge of the hull starting at each point. */
+  private final int[] hullTri;
+  /** Some hull points, by angle around the center. */
+  private final int[] hullHash;
+  private int hullStart;
+  private double centerX;
+  private double centerY;
+
+  /** Half-edges left to check while legalizing. */
+  private int[] edgeStack = new int[512];
+
+  /**
+   * @param xs X coordinates of the points
+   * @param ys Y coordinates of the points
+   */
+  DelaunayTriangulation(double[] xs, double[] ys) {
+    this.xs = xs;
+    this.ys = ys;
+    int n = xs.length;
+    int maxTriangles = Math.max(2 * n - 5, 0);
+    triangles = new int[maxTriangles * 3];
+    halfedges = new int[maxTriangles * 3];
+    hullPrev = new int[n];
+    hullNext = new int[n];
+    hullTri = new int[n];
+    hullHash = new int[Math.max(1, (int) Math.ceil(Math.sqrt(n)))];
+    triangulate();
+  }
+
+  /**
+   * @return Point where each half-edge starts, only the first {@link #trianglesLength()} ones are used
+   */
+  int[] triangles() {
+    return triangles;
+  }
+
+  /**
+   * @return Opposite half-edge of each half-edge, -1 on the convex hull
+   */
+  int[] halfedges() {
+    return halfedges;
+  }
+
+  /**
+   * @return Number of half-edges, three times the number of triangles
+   */
+  int trianglesLength() {
+    return trianglesLength;
+  }
+
+  /**
+   * @return Edges that are not part of a triangle, as pairs of points, only the first {@link #extraEdgesLength()} are
+   * used
+   */
+  int[] extraEdges() {
+    return extraEdges;
+  }
+
+  /**
+   * @return Number of points in {@link #extraEdges()}, twice the number of edges
+   */
+  int extraEdgesLength() {
+    return extraEdgesLength;
+  }
+
+  private void triangulate() {
+    int n = xs.length;
+    if (n < 3) {
+      for (int i = 1; i < n; i++) {
+        addExtraEdge(i - 1, i);
+      }
+      return;
+    }
+
+    double minX = Double.POSITIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    int[] ids = new int[n];
+    for (int i = 0; i < n; i++) {
+      minX = Math.min(minX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxX = Math.max(maxX, xs[i]);
+      maxY = Math.max(maxY, ys[i]);
+      ids[i] = i;
+    }
+    double cx = (minX + maxX) / 2;
+    double cy = (minY + maxY) / 2;
+
+    // Seed triangle: the point closest to the center, its closest point, and the point making the smallest
+    // circumcircle with them
+    int i0 = 0;
+    double minDistance = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      double d = squaredDistance(cx, cy, xs[i], ys[i]);
+      if (d < minDistance) {
+        i0 = i;
+        minDistance = d;
+      }
+    }
+    int i1 = -1;
+    minDistance = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      double d = squaredDistance(xs[i0], ys[i0], xs[i], ys[i]);
+      if (i != i0 && d < minDistance && d > 0) {
+        i1 = i;
+        minDistance = d;
+      }
+    }
+    int i2 = -1;
+    double minRadius = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < n && i1 >= 0; i++) {
+      if (i == i0 || i == i1) {
+        continue;
+      }
+      double r = circumradius(xs[i0], ys[i0], xs[i1], ys[i1], xs[i], ys[i]);
+      if (r < minRadius) {
+        i2 = i;
+        minRadius = r;
+      }
+    }
+
+    double[] distances = new double[n];
+    if (i2 < 0) {
+      // All points are collinear (or equal): link them in order along the line
+      for (int i = 0; i < n; i++) {
+        double dx = xs[i] - xs[0];
+        distances[i] = dx != 0 ? dx : ys[i] - ys[0];
+      }
+      sort(ids, distances, 0, n - 1);
+      for (int k = 1; k < n; k++) {
+        addExtraEdge(ids[k - 1], ids[k]);
+      }
+      return;
+    }
+
+    // Counter-clockwise seed triangle
+    if (isClockwise(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2])) {
+      int i = i1;
+      i1 = i2;
+      i2 = i;
+    }
+    circumcenter(xs[i0], ys[i0], xs[i1], ys[i1], xs[i2], ys[i2]);
+
+    for (int i = 0; i < n; i++) {
+      distances[i] = squaredDistance(xs[i], ys[i], centerX, centerY);
+    }
+    sort(ids, distances, 0, n - 1);
+
+    hullStart = i0;
+    hullNext[i0] = hullPrev[i2] = i1;
+    hullNext[i1] = hullPrev[i0] = i2;
+    hullNext[i2] = hullPrev[i1] = i0;
+    hullTri[i0] = 0;
+    hullTri[i1] = 1;
+    hullTri[i2] = 2;
+    Arrays.fill(hullHash, -1);
+    hullHash[hashKey(xs[i0], ys[i0])] = i0;
+    hullHash[hashKey(xs[i1], ys[i1])] = i1;
+    hullHash[hashKey(xs[i2], ys[i2])] = i2;
+
+    addTriangle(i0, i1, i2, -1, -1, -1);
+
+    int previous = -1;
+    int lastTriangulated = i0;
+    for (int k = 0; k < n; k++) {
+      int i = ids[k];
+      double x = xs[i];
+      double y = ys[i];
+
+      if (i == i0 || i == i1 || i == i2) {
+        previous = i;
+        continue;
+      }
+
+      // Skip near-duplicate points, which may be sorted before or after the seed points they duplicate
+      int twin = isSame(i, i0) ? i0 : isSame(i, i1) ? i1 : isSame(i, i2) ? i2 : -1;
+      if (twin < 0 && previous >= 0 && isSame(i, previous)) {
+        twin = previous;
+      }
+      if (twin >= 0) {
+        addExtraEdge(twin, i);
+        continue;
+      }
+      previous = i;
+
+      // Find a visible edge on the convex hull using the edge hash
+      int start = 0;
+      for (int j = 0, key = hashKey(x, y); j < hullHash.length; j++) {
+        start = hullHash[(key + j) % hullHash.length];
+        if (start != -1 && start != hullNext[start]) {
+          break;
+        }
+      }
+      start = hullPrev[start];
+      int e = start;
+      int q;
+      while (!isClockwise(x, y, xs[e], ys[e], xs[q = hullNext[e]], ys[q])) {
+        e = q;
+        if (e == start) {
+          e = -1;
+          break;
+        }
+      }
+      if (e == -1) {
+        // Numerically inside the hull, only happens for points nearly equal to another one
+        addExtraEdge(lastTriangulated, i);
+        continue;
+      }
+
+      // Add the first triangle from the point, and flip the triangles until they are legal
+      int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+      hullTri[i] = legalize(t + 2);
+      hullTri[e] = t;
+
+      // Walk forward through the hull, adding more triangles
+      int next = hullNext[e];
+      while (isClockwise(x, y, xs[next], ys[next], xs[q = hullNext[next]], ys[q])) {
+        t = addTriangle(next, i, q, hullTri[i], -1, hullTri[next]);
+        hullTri[i] = legalize(t + 2);
+        hullNext[next] = next; // Removed from the hull
+        next = q;
+      }
+
+      // Walk backward from the other side
+      if (e == start) {
+        while (isClockwise(x, y, xs[q = hullPrev[e]], ys[q], xs[e], ys[e])) {
+          t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+          legalize(t + 2);
+          hullTri[q] = t;
+          hullNext[e] = e; // Removed from the hull
+          e = q;
+        }
+      }
+
+      hullStart = hullPrev[i] = e;
+      hullNext[e] = hullPrev[next] = i;
+      hullNext[i] = next;
+      hullHash[hashKey(x, y)] = i;
+      hullHash[hashKey(xs[e], ys[e])] = e;
+      lastTriangulated = i;
+    }
+  }
+
+  /**
+   * Flips the triangles adjacent to a half-edge until they satisfy the Delaunay condition, and the triangles
+   * adjacent to the flipped ones recursively.
+   *
+   * <pre>
+   *           pl                    pl
+   *          /||\                  /  \
+   *       al/ || \bl            al/    \a
+   *        /  ||  \              /      \
+   *       /  a||b  \    flip    /___ar___\
+   *     p0\   ||   /p1   =&gt;   p0\---bl---/p1
+   *        \  ||  /              \      /
+   *       ar\ || /br             b\    /br
+   *          \||/                  \  /
+   *           pr                    pr
+   * </pre>
+   *
+   * @param a Half-edge to check
+   * @return Half-edge ending at the point opposite to {@code a} once legalized
+   */
+  private int legalize(int a) {
+    int stack = 0;
+    int ar;
+    while (true) {
+      int b = halfedges[a];
+      int a0 = a - a % 3;
+      ar = a0 + (a + 2) % 3;
+
+      if (b == -1) {
+        // Convex hull edge
+        if (stack == 0) {
+          break;
+        }
+        a = edgeStack[--stack];
+        continue;
+      }
+
+      int b0 = b - b % 3;
+      int al = a0 + (a + 1) % 3;
+      int bl = b0 + (b + 2) % 3;
+      int p0 = triangles[ar];
+      int pr = triangles[a];
+      int pl = triangles[al];
+      int p1 = triangles[bl];
+
+      if (isInCircle(xs[p0], ys[p0], xs[pr], ys[pr], xs[pl], ys[pl], xs[p1], ys[p1])) {
+        triangles[a] = p1;
+        triangles[b] = p0;
+
+        int hbl = halfedges[bl];
+        if (hbl == -1) {
+          // Edge swapped on the other side of the hull, fix the half-edge reference
+          int e = hullStart;
+          do {
+            if (hullTri[e] == bl) {
+              hullTri[e] = a;
+              break;
+            }
+            e = hullPrev[e];
+          } while (e != hullStart);
+        }
+        link(a, hbl);
+        link(b, halfedges[ar]);
+        link(ar, bl);
+
+        if (stack == edgeStack.length) {
+          edgeStack = Arrays.copyOf(edgeStack, 2 * stack);
+        }
+        edgeStack[stack++] = b0 + (b + 1) % 3;
+      } else {
+        if (stack == 0) {
+          break;
+        }
+        a = edgeStack[--stack];
+      }
+    }
+    return ar;
+  }
+
+  private void link(int a, int b) {
+    halfedges[a] = b;
+    if (b != -1) {
+      halfedges[b] = a;
+    }
+  }
+
+  private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+    int t = trianglesLength;
+    triangles[t] = i0;
+    triangles[t + 1] = i1;
+    triangles[t + 2] = i2;
+    link(t, a);
+    link(t + 1, b);
+    link(t + 2, c);
+    trianglesLength += 3;
+    return t;
+  }
+
+  private void addExtraEdge(int u, int v) {
+    if (extraEdgesLength == extraEdges.length) {
+      extraEdges = Arrays.copyOf(extraEdges, 2 * extraEdgesLength);
+    }
+    extraEdges[extraEdgesLength++] = u;
+    extraEdges[extraEdgesLength++] = v;
+  }
+
+  /**
+   * @return Bucket of the hash of the hull, from the angle of a point around the center
+   */
+  private int hashKey(double x, double y) {
+    double dx = x - centerX;
+    double dy = y - centerY;
+    // Monotonic with the angle, without trigonometry
+    double p = dx / (Math.abs(dx) + Math.abs(dy));
+    double angle = (dy > 0 ? 3 - p : 1 + p) / 4;
+    return (int) Math.floor(angle * hullHash.length) % hullHash.length;
+  }
+
+  private boolean isSame(int i, int j) {
+    return Math.abs(xs[i] - xs[j]) <= EPSILON && Math.abs(ys[i] - ys[j]) <= EPSILON;
+  }
+
+  private static double squaredDistance(double ax, double ay, double bx, double by) {
+    double dx = ax - bx;
+    double dy = ay - by;
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * @return true if the triangle p, q, r is clockwise, false if it is counter-clockwise or flat
+   */
+  private static boolean isClockwise(double px, double py, double qx, double qy, double rx, double ry) {
+    return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+  }
+
+  /**
+   * @return true if p is inside the circumcircle of the counter-clockwise triangle a, b, c
+   */
+  private static boolean isInCircle(double ax, double ay, double bx, double by, double cx, double cy,
+                                    double px, double py) {
+    double dx = ax - px;
+    double dy = ay - py;
+    double ex = bx - px;
+    double ey = by - py;
+    double fx = cx - px;
+    double fy = cy - py;
+
+    double ap = dx * dx + dy * dy;
+    double bp = ex * ex + ey * ey;
+    double cp = fx * fx + fy * fy;
+    return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+  }
+
+  /**
+   * @return Squared radius of the circumcircle of the triangle a, b, c, infinite or NaN if it is flat
+   */
+  private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+    double dx = bx - ax;
+    double dy = by - ay;
+    double ex = cx - ax;
+    double ey = cy - ay;
+
+    double bl = dx * dx + dy * dy;
+    double cl = ex * ex + ey * ey;
+    double d = 0.5 / (dx * ey - dy * ex);
+    double x = (ey * bl - dy * cl) * d;
+    double y = (dx * cl - ex * bl) * d;
+    return x * x + y * y;
+  }
+
+  /**
+   * Sets the center to the center of the circumcircle of the triangle a, b, c.
+   */
+  private void circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+    double dx = bx - ax;
+    double dy = by - ay;
+    double ex = cx - ax;
+    double ey = cy - ay;
+
+    double bl = dx * dx + dy * dy;
+    double cl = ex * ex + ey * ey;
+    double d = 0.5 / (dx * ey - dy * ex);
+    centerX = ax + (ey * bl - dy * cl) * d;
+    centerY = ay + (dx * cl - ex * bl) * d;
+  }
+
+  /**
+   * Sorts the points {@code ids[left..right]} by increasing key, then by coordinates so that equal points are
+   * consecutive and found as duplicates of the previous point.
+   */
+  private void sort(int[] ids, double[] keys, int left, int right) {
+    while (right - left > 20) {
+      int median = (left + right) >>> 1;
+      int i = left + 1;
+      int j = right;
+      swap(ids, median, i);
+      if (isAfter(keys, ids[left], ids[right])) {
+        swap(ids, left, right);
+      }
+      if (isAfter(keys, ids[i], ids[right])) {
+        swap(ids, i, right);
+      }
+      if (isAfter(keys, ids[left], ids[i])) {
+        swap(ids, left, i);
+      }
+
+      int pivot = ids[i];
+      while (true) {
+        do {
+          i++;
+        } while (isAfter(keys, pivot, ids[i]));
+        do {
+          j--;
+        } while (isAfter(keys, ids[j], pivot));
+        if (j < i) {
+          break;
+        }
+        swap(ids, i, j);
+      }
+      ids[left + 1] = ids[j];
+      ids[j] = pivot;
+
+      // Recurse on the smaller side only, to bound the depth of the stack
+      if (right - i + 1 >= j - left) {
+        sort(ids, keys, left, j - 1);
+        left = i;
+      } else {
+        sort(ids, keys, i, right);
+        right = j - 1;
+      }
+    }
+
+    for (int i = left + 1; i <= right; i++) {
+      int id = ids[i];
+      int j = i - 1;
+      while (j >= left && isAfter(keys, ids[j], id)) {
+        ids[j + 1] = ids[j--];
+      }
+      ids[j + 1] = id;
+    }
+  }
+
+  /**
+   * @return true if point {@code a} is sorted after point {@code b}: larger key, then larger x, then larger y
+   */
+  private boolean isAfter(double[] keys, int a, int b) {
+    if (keys[a] != keys[b]) {
+      return keys[a] > keys[b];
+    }
+    if (xs[a] != xs[b]) {
+      return xs[a] > xs[b];
+    }
+    return ys[a] > ys[b];
+  }
+
+  private static void swap(int[] array, int i, int j) {
+    int tmp = array[i];
+    array[i] = array[j];
+    array[j] = tmp;
+  }
+}
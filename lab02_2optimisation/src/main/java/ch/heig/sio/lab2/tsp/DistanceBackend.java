@@ -0,0 +1,35 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>Storage strategies for the distances between the cities of a {@link TspData}.</p>
+ *
+ * <p>Use {@link TspLoadOptions#withBackend} to request a backend when loading an instance, and
+ * {@link TspData#getDistanceBackend()} to know which one is actually used. Instances with
+ * {@link DistanceMetric#EXPLICIT} distances always keep the {@link #PACKED} matrix they are parsed into, whatever the
+ * backend requested.</p>
+ */
+public enum DistanceBackend {
+  /** Full symmetric matrix stored on the heap as an array of rows. */
+  FULL,
+  /** Upper triangle of the matrix stored on the heap in a single flat array. */
+  PACKED,
+  /**
+   * Like {@link #PACKED}, with each distance stored on 16 bits, halving the memory footprint. Only chosen when the
+   * bounding box of the cities guarantees that no distance exceeds 65535, {@link #PACKED} is used otherwise.
+   */
+  COMPACT,
+  /**
+   * Upper triangle of the matrix stored outside the heap in direct buffers. Allows matrices larger than the maximum
+   * size of an array and keeps them out of the scope of the garbage collector. Limited by
+   * {@code -XX:MaxDirectMemorySize}.
+   */
+  OFF_HEAP,
+  /**
+   * Upper triangle of the matrix mapped read-only from a binary instance file, see {@link TspBinaryFormat}. Pages are
+   * loaded lazily and shared between all the processes mapping the same file. Requesting it when the distances are
+   * not available in a binary file is the same as letting {@link TspData} choose the backend.
+   */
+  MAPPED,
+  /** Nothing is stored, distances are recomputed from the coordinates on each access. */
+  COMPUTED
+}
@@ -0,0 +1,247 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <p>Memory-bounded cache of distances, used by {@link TspData} when the distances are not precomputed
+ * ({@link DistanceBackend#COMPUTED}).</p>
+ *
+ * <p>The cache is split in stripes, each one being an open-addressing table guarded by its own lock. Lookups are
+ * lock-free in the common case, so concurrent readers don't block each other. An entry is looked for in a small
+ * window of slots after its hash. When the window is full, an entry is evicted with the clock algorithm: entries
+ * that have been read since the last pass get a second chance.</p>
+ *
+ * <p>Each entry uses {@value #BYTES_PER_ENTRY} bytes.</p>
+ */
+public final class DistanceCache {
+  /** A key and a distance, plus a reference bit for the clock. */
+  static final int BYTES_PER_ENTRY = Long.BYTES + Integer.BYTES + 1;
+  private static final int STRIPES = 64;
+  /** Number of slots looked at for a given key. */
+  private static final int WINDOW = 8;
+  private static final long EMPTY = -1;
+  /** Returned by {@link #get} when the distance isn't in the cache. */
+  static final int MISSING = -1;
+
+  /** A stripe of the cache. */
+  private static final class Stripe {
+    final StampedLock lock = new StampedLock();
+    final long[] keys;
+    final int[] values;
+    final byte[] referenced;
+    /** Position of the clock hand in the window being evicted. */
+    int hand;
+
+    Stripe(int capacity) {
+      keys = new long[capacity];
+      values = new int[capacity];
+      referenced = new byte[capacity];
+      Arrays.fill(keys, EMPTY);
+    }
+  }
+
+  private final Stripe[] stripes;
+  /** Mask applied to the hash to get the first slot of a key in its stripe. */
+  private final int slotMask;
+  private final long capacity;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param budget Maximum number of bytes used by the entries of the cache
+   * @throws IllegalArgumentException if {@code budget} is too small to hold a single entry per stripe
+   */
+  DistanceCache(long budget) {
+    long perStripe = budget / BYTES_PER_ENTRY / STRIPES;
+    if (perStripe < WINDOW) {
+      throw new IllegalArgumentException("Distance cache budget is too small: " + budget + " bytes.");
+    }
+    // Largest power of two that fits in the budget, so that slots can be found with a mask
+    int stripeCapacity = Integer.highestOneBit((int) Math.min(perStripe, 1 << 30));
+
+    stripes = new Stripe[STRIPES];
+    for (int s = 0; s < STRIPES; s++) {
+      stripes[s] = new Stripe(stripeCapacity);
+    }
+    slotMask = stripeCapacity - 1;
+    capacity = (long) stripeCapacity * STRIPES;
+  }
+
+  /**
+   * @param i First city index
+   * @param j Second city index, different from {@code i}
+   * @return Cached distance between the two cities, or {@link #MISSING} if it isn't in the cache
+   */
+  int get(int i, int j) {
+    long key = key(i, j);
+    long hash = hash(key);
+    Stripe stripe = stripes[stripeOf(hash)];
+    int first = (int) hash & slotMask;
+
+    // The optimistic section only reads, the reference bit is set once the entry is known to be valid
+    StampedLock lock = stripe.lock;
+    long stamp = lock.tryOptimisticRead();
+    int slot = find(stripe, key, first);
+    int value = slot < 0 ? MISSING : stripe.values[slot];
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        slot = find(stripe, key, first);
+        value = slot < 0 ? MISSING : stripe.values[slot];
+        if (slot >= 0) {
+          stripe.referenced[slot] = 1;
+        }
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    } else if (slot >= 0) {
+      // A put may replace the entry between the validation and this write: the new entry then gets a second chance
+      // it hasn't earned, which only delays its eviction. This benign race keeps lookups lock-free.
+      stripe.referenced[slot] = 1;
+    }
+
+    if (value == MISSING) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return value;
+  }
+
+  /**
+   * Adds a distance to the cache, evicting another one if needed.
+   *
+   * @param i        First city index
+   * @param j        Second city index, different from {@code i}
+   * @param distance Distance between the two cities
+   */
+  void put(int i, int j, int distance) {
+    long key = key(i, j);
+    long hash = hash(key);
+    Stripe stripe = stripes[stripeOf(hash)];
+    int first = (int) hash & slotMask;
+
+    long stamp = stripe.lock.writeLock();
+    try {
+      // Use the first free slot of the window, unless the key has been added by another thread meanwhile
+      for (int k = 0; k < WINDOW; k++) {
+        int slot = (first + k) & slotMask;
+        long current = stripe.keys[slot];
+        if (current == key) {
+          return;
+        }
+        if (current == EMPTY) {
+          store(stripe, slot, key, distance);
+          return;
+        }
+      }
+
+      // Window is full: move the clock hand until an entry that hasn't been read recently is found
+      while (true) {
+        int slot = (first + stripe.hand) & slotMask;
+        stripe.hand = (stripe.hand + 1) % WINDOW;
+        if (stripe.referenced[slot] == 0) {
+          store(stripe, slot, key, distance);
+          return;
+        }
+        stripe.referenced[slot] = 0;
+      }
+    } finally {
+      stripe.lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * @return Number of lookups that found the distance in the cache
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * @return Number of lookups that didn't find the distance in the cache
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return Ratio of lookups that found the distance in the cache, 0 if there hasn't been any lookup
+   */
+  public double hitRate() {
+    long h = hits();
+    long total = h + misses();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  /**
+   * @return Maximum number of distances held by the cache
+   */
+  public long capacity() {
+    return capacity;
+  }
+
+  /**
+   * Resets the hit and miss counters, the cached distances are kept.
+   */
+  public void resetStatistics() {
+    hits.reset();
+    misses.reset();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("DistanceCache[capacity=%d, hits=%d, misses=%d, hitRate=%.2f%%]",
+        capacity, hits(), misses(), hitRate() * 100);
+  }
+
+  /**
+   * @return Slot holding the key, -1 if it isn't in the stripe
+   */
+  private static int find(Stripe stripe, long key, int first) {
+    for (int k = 0; k < WINDOW; k++) {
+      int slot = (first + k) & (stripe.keys.length - 1);
+      long current = stripe.keys[slot];
+      if (current == key) {
+        return slot;
+      }
+      // Entries are never removed without being replaced, so the key can't be further in the window
+      if (current == EMPTY) {
+        break;
+      }
+    }
+    return -1;
+  }
+
+  private static void store(Stripe stripe, int slot, long key, int distance) {
+    stripe.keys[slot] = key;
+    stripe.values[slot] = distance;
+    stripe.referenced[slot] = 0;
+  }
+
+  /**
+   * @return The pair (min, max) of the two cities packed in a long, so that both orders share the same entry
+   */
+  private static long key(int i, int j) {
+    return i < j ? ((long) i << 32) | j : ((long) j << 32) | i;
+  }
+
+  /**
+   * Mixes the bits of the key (finalizer of MurmurHash3).
+   */
+  private static long hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  private static int stripeOf(long hash) {
+    // The low bits select the slot, use the high ones for the stripe
+    return (int) (hash >>> 58) & (STRIPES - 1);
+  }
+}
@@ -0,0 +1,491 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * <p>Computes the distance between two cities with a given {@link DistanceMetric}.</p>
+ *
+ * <p>A kernel is chosen once when an instance is loaded, and each metric has its own final implementation. Code
+ * calling {@link #distance} thus only ever sees one implementation, letting the JIT inline it instead of branching
+ * on the metric for every call.</p>
+ *
+ * <p>Kernels don't validate the indexes of the cities.</p>
+ */
+abstract class DistanceKernel {
+  /**
+   * @param i First city index
+   * @param j Second city index
+   * @return Distance between the two cities
+   */
+  abstract int distance(int i, int j);
+
+  /**
+   * Computes the distances between a city and many others.
+   *
+   * @param i       Source city index
+   * @param targets Target city indexes
+   * @param count   Number of targets to use
+   * @param out     Array receiving the distance from {@code i} to {@code targets[k]} at index {@code k}
+   */
+  void distancesFrom(int i, int[] targets, int count, int[] out) {
+    for (int k = 0; k < count; k++) {
+      out[k] = distance(i, targets[k]);
+    }
+  }
+
+  /**
+   * @return Metric implemented by this kernel
+   */
+  abstract DistanceMetric metric();
+
+  /**
+   * @return An upper bound of the distance between any two cities, computed without looking at every pair
+   */
+  abstract long maxDistance();
+
+  /**
+   * Creates the kernel of some of the cities.
+   *
+   * @param cities Index in this kernel of each city of the new kernel, ownership is transferred to the kernel
+   * @return The kernel of the cities
+   */
+  DistanceKernel subset(int[] cities) {
+    return new Renumbered(this, cities);
+  }
+
+  /**
+   * Feeds the metric and the data the distances are computed from to a digest, so that two kernels with the same
+   * digest compute the same distances.
+   *
+   * @param digest Digest to update
+   * @return false if the kernel can't be identified this way, the digest is then left unchanged
+   */
+  boolean digest(MessageDigest digest) {
+    return false;
+  }
+
+  /**
+   * Feeds a metric and coordinates to a digest.
+   *
+   * @param digest Digest to update
+   * @param metric Metric of the kernel
+   * @param xs     First coordinates of the cities
+   * @param ys     Second coordinates of the cities
+   */
+  static void digest(MessageDigest digest, DistanceMetric metric, double[] xs, double[] ys) {
+    digest.update(metric.name().getBytes(StandardCharsets.US_ASCII));
+    ByteBuffer buffer = ByteBuffer.allocate(1 << 12).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(xs.length);
+    for (int i = 0; i < xs.length; i++) {
+      if (buffer.remaining() < 2 * Double.BYTES) {
+        digest.update(buffer.flip());
+        buffer.clear();
+      }
+      buffer.putDouble(xs[i]).putDouble(ys[i]);
+    }
+    digest.update(buffer.flip());
+  }
+
+  /**
+   * @param xs X coordinates
+   * @param ys Y coordinates
+   * @return Length of the diagonal of the bounding box of the coordinates
+   */
+  static double boundingBoxDiagonal(double[] xs, double[] ys) {
+    double minX = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < xs.length; i++) {
+      minX = Math.min(minX, xs[i]);
+      maxX = Math.max(maxX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+    return Math.hypot(maxX - minX, maxY - minY);
+  }
+
+  /**
+   * Creates the kernel of a metric based on coordinates.
+   *
+   * @param metric Metric, anything but {@link DistanceMetric#EXPLICIT}
+   * @param xs     X coordinates of the cities, ownership is transferred to the kernel
+   * @param ys     Y coordinates of the cities, ownership is transferred to the kernel
+   * @return The kernel
+   * @throws IllegalArgumentException if {@code metric} is {@link DistanceMetric#EXPLICIT}
+   */
+  static DistanceKernel of(DistanceMetric metric, double[] xs, double[] ys) {
+    return switch (metric) {
+      case EUC_2D -> new Euclidean(xs, ys);
+      case CEIL_2D -> new CeilEuclidean(xs, ys);
+      case ATT -> new PseudoEuclidean(xs, ys);
+      case GEO -> new Geographical(xs, ys);
+      case EXPLICIT -> throw new IllegalArgumentException("Explicit distances are not computed from coordinates.");
+    };
+  }
+
+  /**
+   * Creates the Euclidean kernel of cities with integer coordinates.
+   *
+   * @param xs X coordinates of the cities
+   * @param ys Y coordinates of the cities
+   * @return The kernel
+   */
+  static DistanceKernel euclidean(int[] xs, int[] ys) {
+    double[] x = new double[xs.length];
+    double[] y = new double[ys.length];
+    for (int i = 0; i < xs.length; i++) {
+      x[i] = xs[i];
+      y[i] = ys[i];
+    }
+    return new Euclidean(x, y);
+  }
+
+  /**
+   * Base of the kernels of planar coordinates whose distance never decreases when the Euclidean distance grows. The
+   * nearest cities for such a kernel can thus be found with a spatial index over its coordinates.
+   */
+  abstract static class Planar extends DistanceKernel {
+    /** X coordinates of the cities. */
+    final double[] xs;
+    /** Y coordinates of the cities. */
+    final double[] ys;
+
+    Planar(double[] xs, double[] ys) {
+      this.xs = xs;
+      this.ys = ys;
+    }
+
+    /**
+     * @param xs X coordinates of the cities, ownership is transferred to the kernel
+     * @param ys Y coordinates of the cities, ownership is transferred to the kernel
+     * @return A kernel of the same metric for other cities
+     */
+    abstract Planar withCoordinates(double[] xs, double[] ys);
+
+    /**
+     * Copies the coordinates of the cities, so that the kernel of a subset is still planar.
+     */
+    @Override
+    DistanceKernel subset(int[] cities) {
+      double[] x = new double[cities.length];
+      double[] y = new double[cities.length];
+      for (int k = 0; k < cities.length; k++) {
+        x[k] = xs[cities[k]];
+        y[k] = ys[cities[k]];
+      }
+      return withCoordinates(x, y);
+    }
+
+    @Override
+    boolean digest(MessageDigest digest) {
+      digest(digest, metric(), xs, ys);
+      return true;
+    }
+  }
+
+  /**
+   * Kernel of {@link DistanceMetric#EUC_2D}.
+   */
+  static final class Euclidean extends Planar {
+    /**
+     * Whether the Vector API is available. {@link EuclideanVectorKernel} can't be loaded without it, so it is only
+     * referenced when this is true.
+     */
+    private static final boolean VECTOR_API = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /** Whether {@link #distancesFrom} can use {@link EuclideanVectorKernel}. */
+    private final boolean vectorized;
+
+    Euclidean(double[] xs, double[] ys) {
+      super(xs, ys);
+      this.vectorized = VECTOR_API && isExactWithSqrt(xs) && isExactWithSqrt(ys);
+    }
+
+    @Override
+    Planar withCoordinates(double[] xs, double[] ys) {
+      return new Euclidean(xs, ys);
+    }
+
+    /**
+     * <p>Checks that coordinates are integers small enough for {@code (int) (sqrt(dx * dx + dy * dy) + 0.5)} to be
+     * exactly {@code Math.round(Math.hypot(dx, dy))}.</p>
+     *
+     * <p>Below {@link EuclideanVectorKernel#MAX_COORDINATE}, the sum of squares is exact and the square root of an
+     * integer is never close enough to a half-integer for the rounding to differ.</p>
+     *
+     * @param coordinates Coordinates
+     * @return true if the vectorized kernel gives exactly the same distances
+     */
+    private static boolean isExactWithSqrt(double[] coordinates) {
+      for (double c : coordinates) {
+        if (c != Math.rint(c) || Math.abs(c) > EuclideanVectorKernel.MAX_COORDINATE) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    int distance(int i, int j) {
+      return (int) Math.round(Math.hypot(xs[i] - xs[j], ys[i] - ys[j]));
+    }
+
+    @Override
+    void distancesFrom(int i, int[] targets, int count, int[] out) {
+      if (vectorized) {
+        EuclideanVectorKernel.distancesFrom(xs, ys, i, targets, count, out);
+      } else {
+        super.distancesFrom(i, targets, count, out);
+      }
+    }
+
+    @Override
+    DistanceMetric metric() {
+      return DistanceMetric.EUC_2D;
+    }
+
+    @Override
+    long maxDistance() {
+      return Math.round(boundingBoxDiagonal(xs, ys));
+    }
+  }
+
+  /**
+   * Kernel of {@link DistanceMetric#CEIL_2D}.
+   */
+  static final class CeilEuclidean extends Planar {
+    CeilEuclidean(double[] xs, double[] ys) {
+      super(xs, ys);
+    }
+
+    @Override
+    Planar withCoordinates(double[] xs, double[] ys) {
+      return new CeilEuclidean(xs, ys);
+    }
+
+    @Override
+    int distance(int i, int j) {
+      return (int) Math.ceil(Math.hypot(xs[i] - xs[j], ys[i] - ys[j]));
+    }
+
+    @Override
+    DistanceMetric metric() {
+      return DistanceMetric.CEIL_2D;
+    }
+
+    @Override
+    long maxDistance() {
+      return (long) Math.ceil(boundingBoxDiagonal(xs, ys));
+    }
+  }
+
+  /**
+   * Kernel of {@link DistanceMetric#ATT}, as defined by TSPLIB.
+   */
+  static final class PseudoEuclidean extends Planar {
+    PseudoEuclidean(double[] xs, double[] ys) {
+      super(xs, ys);
+    }
+
+    @Override
+    Planar withCoordinates(double[] xs, double[] ys) {
+      return new PseudoEuclidean(xs, ys);
+    }
+
+    @Override
+    int distance(int i, int j) {
+      double dx = xs[i] - xs[j];
+      double dy = ys[i] - ys[j];
+      return pseudoEuclidean(Math.sqrt((dx * dx + dy * dy) / 10.0));
+    }
+
+    /**
+     * @param r Euclidean distance divided by the square root of 10
+     * @return The pseudo-Euclidean distance
+     */
+    private static int pseudoEuclidean(double r) {
+      int t = (int) (r + 0.5);
+      return t < r ? t + 1 : t;
+    }
+
+    @Override
+    DistanceMetric metric() {
+      return DistanceMetric.ATT;
+    }
+
+    @Override
+    long maxDistance() {
+      return pseudoEuclidean(boundingBoxDiagonal(xs, ys) / Math.sqrt(10.0));
+    }
+  }
+
+  /**
+   * Kernel of {@link DistanceMetric#GEO}, as defined by TSPLIB. Latitudes and longitudes are converted to radians
+   * once, when the kernel is created.
+   */
+  static final class Geographical extends DistanceKernel {
+    /** Approximation of pi required by TSPLIB. */
+    private static final double PI = 3.141592;
+    /** Radius of the idealized Earth in kilometers. */
+    private static final double RRR = 6378.388;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    Geographical(double[] xs, double[] ys) {
+      latitudes = new double[xs.length];
+      longitudes = new double[ys.length];
+      for (int i = 0; i < xs.length; i++) {
+        latitudes[i] = toRadians(xs[i]);
+        longitudes[i] = toRadians(ys[i]);
+      }
+    }
+
+    /**
+     * @param degreesMinutes An angle in {@code DDD.MM} format
+     * @return The angle in radians
+     */
+    private static double toRadians(double degreesMinutes) {
+      int degrees = (int) degreesMinutes;
+      double minutes = degreesMinutes - degrees;
+      return PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+
+    @Override
+    int distance(int i, int j) {
+      if (i == j) {
+        return 0;
+      }
+      double q1 = Math.cos(longitudes[i] - longitudes[j]);
+      double q2 = Math.cos(latitudes[i] - latitudes[j]);
+      double q3 = Math.cos(latitudes[i] + latitudes[j]);
+      return (int) (RRR * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+    }
+
+    @Override
+    DistanceMetric metric() {
+      return DistanceMetric.GEO;
+    }
+
+    @Override
+    boolean digest(MessageDigest digest) {
+      digest(digest, DistanceMetric.GEO, latitudes, longitudes);
+      return true;
+    }
+
+    @Override
+    long maxDistance() {
+      // Half the circumference of the Earth
+      return (long) (RRR * Math.PI + 1.0);
+    }
+  }
+
+  /**
+   * Kernel giving the distances of another kernel with the cities renumbered, used to fill a matrix in another order
+   * than the one of the cities.
+   */
+  static final class Renumbered extends DistanceKernel {
+    private final DistanceKernel kernel;
+    private final int[] cities;
+
+    /**
+     * @param kernel Kernel of the cities in their original order
+     * @param cities Original index of each city of this kernel
+     */
+    Renumbered(DistanceKernel kernel, int[] cities) {
+      this.kernel = kernel;
+      this.cities = cities;
+    }
+
+    @Override
+    int distance(int i, int j) {
+      return kernel.distance(cities[i], cities[j]);
+    }
+
+    @Override
+    DistanceMetric metric() {
+      return kernel.metric();
+    }
+
+    @Override
+    long maxDistance() {
+      return kernel.maxDistance();
+    }
+  }
+
+  /**
+   * Kernel reading the distances of another kernel from a storage already holding them, to copy them into another
+   * layout.
+   */
+  static final class Stored extends DistanceKernel {
+    private final DistanceStorage storage;
+    private final DistanceKernel kernel;
+
+    /**
+     * @param storage Distances computed by the kernel, in the order of its cities
+     * @param kernel  Kernel of the distances
+     */
+    Stored(DistanceStorage storage, DistanceKernel kernel) {
+      this.storage = storage;
+      this.kernel = kernel;
+    }
+
+    @Override
+    int distance(int i, int j) {
+      return storage.get(i, j);
+    }
+
+    @Override
+    DistanceMetric metric() {
+      return kernel.metric();
+    }
+
+    @Override
+    long maxDistance() {
+      return kernel.maxDistance();
+    }
+  }
+
+  /**
+   * Kernel of {@link DistanceMetric#EXPLICIT}, reading the distances given by the instance.
+   */
+  static final class Explicit extends DistanceKernel {
+    private final PackedDistanceMatrix weights;
+    private final int maxWeight;
+
+    /**
+     * @param weights   Distances given by the instance
+     * @param maxWeight Largest of the distances
+     */
+    Explicit(PackedDistanceMatrix weights, int maxWeight) {
+      this.weights = weights;
+      this.maxWeight = maxWeight;
+    }
+
+    @Override
+    int distance(int i, int j) {
+      return weights.get(i, j);
+    }
+
+    @Override
+    DistanceMetric metric() {
+      return DistanceMetric.EXPLICIT;
+    }
+
+    @Override
+    long maxDistance() {
+      return maxWeight;
+    }
+
+    /**
+     * @return Distances given by the instance
+     */
+    PackedDistanceMatrix weights() {
+      return weights;
+    }
+  }
+}
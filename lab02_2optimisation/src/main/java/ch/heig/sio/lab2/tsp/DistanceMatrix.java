@@ -0,0 +1,119 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>A {@link DistanceStorage} holding precomputed distances.</p>
+ *
+ * <p>The matrix is symmetric with a null diagonal, so only the entries {@code (i, j)} with {@code i < j} have to be
+ * set.</p>
+ */
+abstract class DistanceMatrix extends DistanceStorage {
+  /** Below this number of cities, the matrix is always filled by the calling thread. */
+  private static final int PARALLEL_THRESHOLD = 1_000;
+  /** Number of entries under which a block of rows isn't split anymore. */
+  private static final long LEAF_ENTRIES = 1 << 16;
+
+  /**
+   * <p>Stores the distance between two cities.</p>
+   *
+   * <p>Must be safe to call concurrently for distinct pairs of cities.</p>
+   *
+   * @param i        First city index, lower than {@code j}
+   * @param j        Second city index
+   * @param distance Distance between the two cities
+   */
+  abstract void set(int i, int j, int distance);
+
+  /**
+   * Computes the distances between all the cities and stores them in the matrix.
+   *
+   * @param kernel      Kernel computing the distances
+   * @param n           Number of cities
+   * @param parallelism Number of threads used to fill the matrix
+   */
+  void fill(DistanceKernel kernel, int n, int parallelism) {
+    if (parallelism <= 1 || n < PARALLEL_THRESHOLD) {
+      fillRows(kernel, n, 0, n);
+      return;
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new FillTask(kernel, n, 0, n));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Fills the upper triangle of a block of rows.
+   *
+   * @param kernel Kernel computing the distances
+   * @param n      Number of cities
+   * @param from   First row (inclusive)
+   * @param to     Last row (exclusive)
+   */
+  private void fillRows(DistanceKernel kernel, int n, int from, int to) {
+    for (int i = from; i < to; i++) {
+      for (int j = i + 1; j < n; j++) {
+        set(i, j, kernel.distance(i, j));
+      }
+    }
+  }
+
+  /**
+   * Task filling a block of rows, split in two blocks holding the same number of entries while it is large enough.
+   * Rows get shorter as their index grows, so the split point is moved towards the end of the block.
+   */
+  private final class FillTask extends RecursiveAction {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Tasks are never serialized, the kernel is only read by the threads filling the matrix
+    private final transient DistanceKernel kernel;
+    private final int n;
+    private final int from;
+    private final int to;
+
+    FillTask(DistanceKernel kernel, int n, int from, int to) {
+      this.kernel = kernel;
+      this.n = n;
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * @return Number of entries of the upper triangle in rows {@code [from, row[}
+     */
+    private long entriesBefore(int row) {
+      // Sum of (n - 1 - i) for i in [from, row[
+      return (row - from) * (2L * n - from - row - 1) / 2;
+    }
+
+    @Override
+    protected void compute() {
+      long entries = entriesBefore(to);
+      if (to - from <= 1 || entries <= LEAF_ENTRIES) {
+        fillRows(kernel, n, from, to);
+        return;
+      }
+
+      // Binary search of the row splitting the block in two halves with the same number of entries
+      int low = from + 1;
+      int high = to - 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (entriesBefore(mid) < entries / 2) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      invokeAll(new FillTask(kernel, n, from, low), new FillTask(kernel, n, low, to));
+    }
+  }
+}
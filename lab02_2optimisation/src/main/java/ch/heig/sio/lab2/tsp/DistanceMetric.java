@@ -0,0 +1,19 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>Distance functions between cities, named after the {@code EDGE_WEIGHT_TYPE} of the TSPLIB format.</p>
+ *
+ * <p>See {@link TspData#getMetric()}.</p>
+ */
+public enum DistanceMetric {
+  /** Euclidean distance rounded to the nearest integer. Used by all the instances in the text format. */
+  EUC_2D,
+  /** Euclidean distance rounded up to the next integer. */
+  CEIL_2D,
+  /** Pseudo-Euclidean distance of the {@code att} instances. */
+  ATT,
+  /** Geographical distance on the Earth, coordinates being latitudes and longitudes in {@code DDD.MM} format. */
+  GEO,
+  /** Distances given explicitly by the instance. */
+  EXPLICIT
+}
@@ -0,0 +1,18 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>Unchecked access to the distances between the cities of an instance, for the inner loops of heuristics.</p>
+ *
+ * <p>Unlike {@link TspData#getDistance}, indexes are not validated: the oracle goes straight to the storage chosen
+ * by the {@link DistanceBackend}, so that the JIT can inline the access and hoist the loads of its fields out of the
+ * loops. Indexes out of {@code [0, n[} give an undefined result or an unchecked exception. It is obtained once from
+ * {@link TspData#getDistanceOracle} and can be shared between threads.</p>
+ */
+public interface DistanceOracle {
+  /**
+   * @param i First city index, in {@code [0, n[}
+   * @param j Second city index, in {@code [0, n[}
+   * @return Distance between the two cities
+   */
+  int distance(int i, int j);
+}
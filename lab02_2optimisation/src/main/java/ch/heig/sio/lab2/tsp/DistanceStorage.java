@@ -0,0 +1,52 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>Provides the distances between the cities of an instance.</p>
+ *
+ * <p>Implementations don't validate the indexes of the cities, this is the responsibility of {@link TspData}.</p>
+ */
+abstract class DistanceStorage implements DistanceOracle {
+  /**
+   * @param i First city index
+   * @param j Second city index
+   * @return Distance between the two cities
+   */
+  abstract int get(int i, int j);
+
+  @Override
+  public final int distance(int i, int j) {
+    return get(i, j);
+  }
+
+  /**
+   * Writes the distances between a city and many others.
+   *
+   * @param i       Source city index
+   * @param targets Target city indexes
+   * @param count   Number of targets to use
+   * @param out     Array receiving the distance from {@code i} to {@code targets[k]} at index {@code k}
+   */
+  void distancesFrom(int i, int[] targets, int count, int[] out) {
+    for (int k = 0; k < count; k++) {
+      out[k] = get(i, targets[k]);
+    }
+  }
+
+  /**
+   * @return Backend implemented by this storage
+   */
+  abstract DistanceBackend backend();
+
+  /**
+   * Oracle of a storage whose rows are not in the order of the cities.
+   *
+   * @param storage Storage of the distances
+   * @param rows    Row of each city in the storage
+   */
+  record Renumbered(DistanceStorage storage, int[] rows) implements DistanceOracle {
+    @Override
+    public int distance(int i, int j) {
+      return storage.get(rows[i], rows[j]);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * Receives the edges of a tour as pairs of city indexes, without allocating an {@link Edge} per edge.
+ */
+@FunctionalInterface
+public interface EdgeConsumer {
+  /**
+   * @param u First city
+   * @param v Second city
+   */
+  void accept(int u, int v);
+}
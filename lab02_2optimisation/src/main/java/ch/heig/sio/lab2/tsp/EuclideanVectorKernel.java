@@ -0,0 +1,58 @@
+package ch.heig.sio.lab2.tsp;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>Computes batches of {@link DistanceMetric#EUC_2D} distances with the Vector API, one lane per target.</p>
+ *
+ * <p>The coordinates of the targets are gathered, and the distances rounded with {@code sqrt(d) + 0.5} since there is
+ * no vectorized {@code hypot}. This is only exact for the integer coordinates accepted by
+ * {@link DistanceKernel.Euclidean}, which checks them before using this class.</p>
+ *
+ * <p>This class needs the {@code jdk.incubator.vector} module and must not be loaded when it is missing.</p>
+ */
+final class EuclideanVectorKernel {
+  /** Largest absolute value of a coordinate for which the vectorized distances are exact. */
+  static final int MAX_COORDINATE = 1 << 22;
+
+  private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+  /** Species of the rounded distances, with as many lanes as {@link #DOUBLES}. */
+  private static final VectorSpecies<Integer> INTS =
+      VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.length() * Integer.SIZE));
+
+  private EuclideanVectorKernel() {
+  }
+
+  /**
+   * @param xs      X coordinates of the cities
+   * @param ys      Y coordinates of the cities
+   * @param i       Source city index
+   * @param targets Target city indexes
+   * @param count   Number of targets to use
+   * @param out     Array receiving the distance from {@code i} to {@code targets[k]} at index {@code k}
+   */
+  static void distancesFrom(double[] xs, double[] ys, int i, int[] targets, int count, int[] out) {
+    double x = xs[i];
+    double y = ys[i];
+    int bound = DOUBLES.loopBound(count);
+
+    int k = 0;
+    for (; k < bound; k += DOUBLES.length()) {
+      DoubleVector dx = DoubleVector.fromArray(DOUBLES, xs, 0, targets, k).sub(x);
+      DoubleVector dy = DoubleVector.fromArray(DOUBLES, ys, 0, targets, k).sub(y);
+      dx.fma(dx, dy.mul(dy))
+          .lanewise(VectorOperators.SQRT)
+          .add(0.5)
+          .convertShape(VectorOperators.D2I, INTS, 0)
+          .reinterpretAsInts()
+          .intoArray(out, k);
+    }
+    for (; k < count; k++) {
+      out[k] = (int) Math.round(Math.hypot(xs[targets[k]] - x, ys[targets[k]] - y));
+    }
+  }
+}
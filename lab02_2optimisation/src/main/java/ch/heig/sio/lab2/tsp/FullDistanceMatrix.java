@@ -0,0 +1,39 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * A {@link DistanceMatrix} storing the whole symmetric matrix as an array of rows.
+ */
+final class FullDistanceMatrix extends DistanceMatrix {
+  private final int[][] matrix;
+
+  /**
+   * @param n Number of cities
+   * @throws OutOfMemoryError if the matrix can't be allocated
+   */
+  FullDistanceMatrix(int n) {
+    matrix = new int[n][n];
+  }
+
+  @Override
+  int get(int i, int j) {
+    return matrix[i][j];
+  }
+
+  @Override
+  void distancesFrom(int i, int[] targets, int count, int[] out) {
+    int[] row = matrix[i];
+    for (int k = 0; k < count; k++) {
+      out[k] = row[targets[k]];
+    }
+  }
+
+  @Override
+  void set(int i, int j, int distance) {
+    matrix[i][j] = matrix[j][i] = distance;
+  }
+
+  @Override
+  DistanceBackend backend() {
+    return DistanceBackend.FULL;
+  }
+}
@@ -0,0 +1,81 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Arrays;
+
+/**
+ * <p>Orders cities along a Hilbert curve, a space-filling curve that keeps cities close in the plane close in the
+ * order.</p>
+ *
+ * <p>The bounding box of the cities is scaled to a grid of 2<sup>16</sup> by 2<sup>16</sup> cells, and cities are
+ * sorted by the position of their cell on the curve, then by index.</p>
+ */
+final class HilbertCurve {
+  /** Number of bits of each scaled coordinate. */
+  private static final int ORDER = 16;
+  private static final int SIDE = 1 << ORDER;
+
+  private HilbertCurve() {
+  }
+
+  /**
+   * @param xs X coordinates of the cities
+   * @param ys Y coordinates of the cities
+   * @return Indexes of the cities, in the order they are visited by the curve
+   */
+  static int[] order(int[] xs, int[] ys) {
+    int n = xs.length;
+    long minX = Long.MAX_VALUE;
+    long maxX = Long.MIN_VALUE;
+    long minY = Long.MAX_VALUE;
+    long maxY = Long.MIN_VALUE;
+    for (int i = 0; i < n; i++) {
+      minX = Math.min(minX, xs[i]);
+      maxX = Math.max(maxX, xs[i]);
+      minY = Math.min(minY, ys[i]);
+      maxY = Math.max(maxY, ys[i]);
+    }
+    // Same scale on both axes, so that the curve isn't stretched
+    double scale = (SIDE - 1) / (double) Math.max(1, Math.max(maxX - minX, maxY - minY));
+
+    // The position on the curve in the high bits and the city in the low bits, to sort them together
+    long[] keys = new long[n];
+    for (int i = 0; i < n; i++) {
+      int x = (int) ((xs[i] - minX) * scale);
+      int y = (int) ((ys[i] - minY) * scale);
+      keys[i] = index(x, y) << Integer.SIZE | i;
+    }
+    Arrays.sort(keys);
+
+    int[] order = new int[n];
+    for (int k = 0; k < n; k++) {
+      order[k] = (int) keys[k];
+    }
+    return order;
+  }
+
+  /**
+   * @param x X coordinate of a cell, in {@code [0, 2^16[}
+   * @param y Y coordinate of a cell, in {@code [0, 2^16[}
+   * @return Position of the cell on the curve
+   */
+  static long index(int x, int y) {
+    long d = 0;
+    for (int s = SIDE >>> 1; s > 0; s >>>= 1) {
+      int rx = (x & s) != 0 ? 1 : 0;
+      int ry = (y & s) != 0 ? 1 : 0;
+      d += (long) s * s * ((3 * rx) ^ ry);
+
+      // Rotate the quadrant so that the curve continues in the right direction
+      if (ry == 0) {
+        if (rx == 1) {
+          x = SIDE - 1 - x;
+          y = SIDE - 1 - y;
+        }
+        int t = x;
+        x = y;
+        y = t;
+      }
+    }
+    return d;
+  }
+}
@@ -0,0 +1,411 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * <p>Static k-d tree over the cities of an instance, answering nearest neighbour, k nearest neighbours and radius
+ * queries in logarithmic time on average.</p>
+ *
+ * <p>The tree has no node objects: cities are stored in flat arrays, ordered so that each subtree is a contiguous
+ * range whose median splits the remaining cities along the axis of largest spread. Small ranges are leaves, scanned
+ * linearly.</p>
+ *
+ * <p>Cities can be deleted, for instance once they are part of a tour: queries then ignore them, and subtrees without
+ * any remaining city are skipped. Deleted cities can be restored, so that a tree emptied with {@link #deleteAll} indexes
+ * a growing set of cities, for instance the cities of a partial tour. The tree itself is never rebuilt.</p>
+ *
+ * <p>Distances are Euclidean distances between the coordinates used by the metric of the instance, which is why only
+ * planar metrics are supported. Cities at the same distance are ordered by index. A tree is not thread-safe.</p>
+ */
+public final class KdTree {
+  /** Largest number of cities of a leaf. */
+  private static final int LEAF_SIZE = 8;
+  private static final byte X_AXIS = 0;
+  private static final byte Y_AXIS = 1;
+
+  /** Coordinates, by position in the tree. */
+  private final double[] xs;
+  private final double[] ys;
+  /** City at each position. */
+  private final int[] cities;
+  /** Position of each city. */
+  private final int[] positions;
+  /** Whether the city at each position has been deleted. */
+  private final boolean[] deleted;
+  /** Axis splitting each subtree, at the position of its median. */
+  private final byte[] axes;
+  /** Cities not deleted in each subtree, at the position of its median. */
+  private final int[] alive;
+  private int size;
+
+  /** Heap of the current k nearest neighbours query, reused between queries. */
+  private BoundedHeap heap;
+  private int bestCity;
+  private double bestKey;
+
+  private KdTree(double[] xs, double[] ys) {
+    int n = xs.length;
+    this.xs = xs.clone();
+    this.ys = ys.clone();
+    cities = new int[n];
+    for (int i = 0; i < n; i++) {
+      cities[i] = i;
+    }
+    positions = new int[n];
+    deleted = new boolean[n];
+    axes = new byte[n];
+    alive = new int[n];
+    size = n;
+
+    build(0, n);
+    for (int p = 0; p < n; p++) {
+      positions[cities[p]] = p;
+    }
+  }
+
+  /**
+   * Builds the k-d tree of the cities of an instance, none of them being deleted.
+   *
+   * @param data Data of problem instance.
+   * @return The tree.
+   *
+   * @throws IllegalArgumentException If the metric of the instance isn't planar: {@link DistanceMetric#GEO} and
+   *                                  {@link DistanceMetric#EXPLICIT} are not supported.
+   */
+  public static KdTree of(TspData data) {
+    if (!(data.kernel() instanceof DistanceKernel.Planar planar)) {
+      throw new IllegalArgumentException("A k-d tree needs planar coordinates, not " + data.getMetric() + ".");
+    }
+    return new KdTree(planar.xs, planar.ys);
+  }
+
+  /**
+   * @return Number of cities not deleted
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @param city City index
+   * @return true if the city has been deleted
+   * @throws IndexOutOfBoundsException If city is out of bounds
+   */
+  public boolean isDeleted(int city) {
+    return deleted[positions[Objects.checkIndex(city, positions.length)]];
+  }
+
+  /**
+   * Deletes a city, which is ignored by the following queries.
+   *
+   * @param city City index
+   * @return false if the city was already deleted
+   * @throws IndexOutOfBoundsException If city is out of bounds
+   */
+  public boolean delete(int city) {
+    int position = positions[Objects.checkIndex(city, positions.length)];
+    if (deleted[position]) {
+      return false;
+    }
+    deleted[position] = true;
+    size--;
+    updateAlive(position, -1);
+    return true;
+  }
+
+  /**
+   * Restores a deleted city, which is found again by the following queries.
+   *
+   * @param city City index
+   * @return false if the city wasn't deleted
+   * @throws IndexOutOfBoundsException If city is out of bounds
+   */
+  public boolean restore(int city) {
+    int position = positions[Objects.checkIndex(city, positions.length)];
+    if (!deleted[position]) {
+      return false;
+    }
+    deleted[position] = false;
+    size++;
+    updateAlive(position, 1);
+    return true;
+  }
+
+  /**
+   * Deletes all the cities, in linear time.
+   */
+  public void deleteAll() {
+    Arrays.fill(deleted, true);
+    Arrays.fill(alive, 0);
+    size = 0;
+  }
+
+  /**
+   * Updates the counts of the subtrees holding a position, from the root.
+   */
+  private void updateAlive(int position, int delta) {
+    int lo = 0;
+    int hi = cities.length;
+    while (hi - lo > LEAF_SIZE) {
+      int median = (lo + hi) >>> 1;
+      alive[median] += delta;
+      if (position == median) {
+        break;
+      } else if (position < median) {
+        hi = median;
+      } else {
+        lo = median + 1;
+      }
+    }
+  }
+
+  /**
+   * Finds the nearest city not deleted.
+   *
+   * @param city City index, it is never its own neighbour
+   * @return Index of the nearest city, -1 if there is none
+   * @throws IndexOutOfBoundsException If city is out of bounds
+   */
+  public int nearest(int city) {
+    int position = positions[Objects.checkIndex(city, positions.length)];
+    bestCity = -1;
+    bestKey = Double.POSITIVE_INFINITY;
+    searchNearest(0, cities.length, city, xs[position], ys[position]);
+    return bestCity;
+  }
+
+  /**
+   * Finds the k nearest cities not deleted, sorted by increasing distance.
+   *
+   * @param city City index, it is never its own neighbour
+   * @param k    Number of neighbours to find
+   * @param out  Array receiving the neighbours, from index 0
+   * @return Number of neighbours found, less than k if there aren't enough cities
+   * @throws IndexOutOfBoundsException If city is out of bounds or if {@code out} is shorter than k
+   * @throws IllegalArgumentException  If k is negative
+   */
+  public int nearest(int city, int k, int[] out) {
+    int position = positions[Objects.checkIndex(city, positions.length)];
+    if (k < 0) {
+      throw new IllegalArgumentException("k should not be negative.");
+    }
+    Objects.checkFromIndexSize(0, k, out.length);
+    if (k == 0) {
+      return 0;
+    }
+
+    if (heap == null || heap.capacity() != k) {
+      heap = new BoundedHeap(k);
+    }
+    heap.clear();
+    searchNearest(0, cities.length, city, xs[position], ys[position], heap);
+    int count = heap.size();
+    heap.drain(out, 0);
+    return count;
+  }
+
+  /**
+   * Visits all the cities not deleted within a given distance of a city, in no particular order.
+   *
+   * @param city   City index, it is never visited
+   * @param radius Largest distance from the city
+   * @param action Action called with the index of each city found
+   * @return Number of cities found
+   * @throws IndexOutOfBoundsException If city is out of bounds
+   */
+  public int forEachWithin(int city, double radius, IntConsumer action) {
+    int position = positions[Objects.checkIndex(city, positions.length)];
+    return searchWithin(0, cities.length, city, xs[position], ys[position], radius * radius, radius, action);
+  }
+
+  private void searchNearest(int lo, int hi, int city, double x, double y) {
+    if (hi - lo <= LEAF_SIZE) {
+      for (int p = lo; p < hi; p++) {
+        offerNearest(p, city, x, y);
+      }
+      return;
+    }
+
+    int median = (lo + hi) >>> 1;
+    if (alive[median] == 0) {
+      return;
+    }
+    offerNearest(median, city, x, y);
+    double diff = axes[median] == X_AXIS ? x - xs[median] : y - ys[median];
+    if (diff < 0) {
+      searchNearest(lo, median, city, x, y);
+      if (diff * diff <= bestKey) {
+        searchNearest(median + 1, hi, city, x, y);
+      }
+    } else {
+      searchNearest(median + 1, hi, city, x, y);
+      if (diff * diff <= bestKey) {
+        searchNearest(lo, median, city, x, y);
+      }
+    }
+  }
+
+  private void offerNearest(int position, int city, double x, double y) {
+    int other = cities[position];
+    if (deleted[position] || other == city) {
+      return;
+    }
+    double dx = xs[position] - x;
+    double dy = ys[position] - y;
+    double key = dx * dx + dy * dy;
+    if (key < bestKey || (key == bestKey && other < bestCity)) {
+      bestKey = key;
+      bestCity = other;
+    }
+  }
+
+  private void searchNearest(int lo, int hi, int city, double x, double y, BoundedHeap heap) {
+    if (hi - lo <= LEAF_SIZE) {
+      for (int p = lo; p < hi; p++) {
+        offerNearest(p, city, x, y, heap);
+      }
+      return;
+    }
+
+    int median = (lo + hi) >>> 1;
+    if (alive[median] == 0) {
+      return;
+    }
+    offerNearest(median, city, x, y, heap);
+    double diff = axes[median] == X_AXIS ? x - xs[median] : y - ys[median];
+    if (diff < 0) {
+      searchNearest(lo, median, city, x, y, heap);
+      if (!heap.isFull() || diff * diff <= heap.maxKey()) {
+        searchNearest(median + 1, hi, city, x, y, heap);
+      }
+    } else {
+      searchNearest(median + 1, hi, city, x, y, heap);
+      if (!heap.isFull() || diff * diff <= heap.maxKey()) {
+        searchNearest(lo, median, city, x, y, heap);
+      }
+    }
+  }
+
+  private void offerNearest(int position, int city, double x, double y, BoundedHeap heap) {
+    if (deleted[position] || cities[position] == city) {
+      return;
+    }
+    double dx = xs[position] - x;
+    double dy = ys[position] - y;
+    heap.offer(dx * dx + dy * dy, cities[position]);
+  }
+
+  private int searchWithin(int lo, int hi, int city, double x, double y, double radius2, double radius,
+                           IntConsumer action) {
+    if (hi - lo <= LEAF_SIZE) {
+      int count = 0;
+      for (int p = lo; p < hi; p++) {
+        count += visitWithin(p, city, x, y, radius2, action);
+      }
+      return count;
+    }
+
+    int median = (lo + hi) >>> 1;
+    if (alive[median] == 0) {
+      return 0;
+    }
+    int count = visitWithin(median, city, x, y, radius2, action);
+    double diff = axes[median] == X_AXIS ? x - xs[median] : y - ys[median];
+    if (diff <= radius) {
+      count += searchWithin(lo, median, city, x, y, radius2, radius, action);
+    }
+    if (-diff <= radius) {
+      count += searchWithin(median + 1, hi, city, x, y, radius2, radius, action);
+    }
+    return count;
+  }
+
+  private int visitWithin(int position, int city, double x, double y, double radius2, IntConsumer action) {
+    if (deleted[position] || cities[position] == city) {
+      return 0;
+    }
+    double dx = xs[position] - x;
+    double dy = ys[position] - y;
+    if (dx * dx + dy * dy > radius2) {
+      return 0;
+    }
+    action.accept(cities[position]);
+    return 1;
+  }
+
+  /**
+   * Orders the range {@code [lo, hi[} as a subtree: its median along the axis of largest spread at the middle,
+   * smaller coordinates before it and larger ones after it, each side being a subtree itself.
+   */
+  private void build(int lo, int hi) {
+    if (hi - lo <= LEAF_SIZE) {
+      return;
+    }
+
+    double minX = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY;
+    double minY = Double.POSITIVE_INFINITY;
+    double maxY = Double.NEGATIVE_INFINITY;
+    for (int p = lo; p < hi; p++) {
+      minX = Math.min(minX, xs[p]);
+      maxX = Math.max(maxX, xs[p]);
+      minY = Math.min(minY, ys[p]);
+      maxY = Math.max(maxY, ys[p]);
+    }
+    byte axis = maxX - minX >= maxY - minY ? X_AXIS : Y_AXIS;
+
+    int median = (lo + hi) >>> 1;
+    select(lo, hi, median, axis == X_AXIS ? xs : ys);
+    axes[median] = axis;
+    alive[median] = hi - lo;
+    build(lo, median);
+    build(median + 1, hi);
+  }
+
+  /**
+   * Moves the k-th smallest coordinate of {@code [lo, hi[} to position k, with smaller or equal coordinates before it
+   * and larger or equal ones after it. Equal coordinates are grouped together so that duplicates don't slow it down.
+   */
+  private void select(int lo, int hi, int k, double[] coordinates) {
+    while (hi - lo > 1) {
+      double pivot = medianOfThree(coordinates[lo], coordinates[(lo + hi) >>> 1], coordinates[hi - 1]);
+      int less = lo;
+      int greater = hi;
+      int p = lo;
+      while (p < greater) {
+        if (coordinates[p] < pivot) {
+          swap(less++, p++);
+        } else if (coordinates[p] > pivot) {
+          swap(p, --greater);
+        } else {
+          p++;
+        }
+      }
+      if (k < less) {
+        hi = less;
+      } else if (k >= greater) {
+        lo = greater;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private static double medianOfThree(double a, double b, double c) {
+    return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+  }
+
+  private void swap(int p, int q) {
+    double x = xs[p];
+    xs[p] = xs[q];
+    xs[q] = x;
+    double y = ys[p];
+    ys[p] = ys[q];
+    ys[q] = y;
+    int city = cities[p];
+    cities[p] = cities[q];
+    cities[q] = city;
+  }
+}
@@ -0,0 +1,226 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * <p>Directory of distance matrices computed by previous loads, so that loading the same instance again copies the
+ * matrix from a mapped file instead of recomputing it, see {@link TspLoadOptions#withMatrixCache}.</p>
+ *
+ * <p>Matrices are stored in the {@link TspBinaryFormat}, in files named after a SHA-256 hash of the metric and of the
+ * coordinates of the cities: a modified instance has another name, and the coordinates stored in the file are checked
+ * before it is used. Files are removed, least recently used first, when the directory exceeds its size limit or when
+ * they haven't been used for longer than the maximum age.</p>
+ *
+ * <p>The cache is enabled with {@link TspLoadOptions#withMatrixCache}, and only used when the backend is chosen
+ * automatically or is {@link DistanceBackend#MAPPED}. Instances with {@link DistanceMetric#EXPLICIT} distances are
+ * never cached. Failures to read or write the cache are ignored: the matrix is then computed as without cache.
+ * Files are written under a temporary name then renamed, so several processes can share a directory.</p>
+ *
+ * <p>Caches are immutable, start from {@link #in} and derive new ones with the {@code with*} methods.</p>
+ */
+public final class MatrixFileCache {
+  /** Default size limit of the directory: 4 GiB. */
+  private static final long DEFAULT_MAX_BYTES = 4L << 30;
+  private static final String EXTENSION = ".bin";
+
+  private final Path directory;
+  /** Size limit of the files of the directory. */
+  private final long maxBytes;
+  /** Files not used for longer than this are removed, null to keep them. */
+  private final Duration maxAge;
+
+  private MatrixFileCache(Path directory, long maxBytes, Duration maxAge) {
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.maxAge = maxAge;
+  }
+
+  /**
+   * Creates a cache in a directory, limited to 4 GiB and without maximum age. The directory is created when the first
+   * matrix is stored.
+   *
+   * @param directory Directory of the cache
+   * @return The cache
+   */
+  public static MatrixFileCache in(Path directory) {
+    if (directory == null) {
+      throw new NullPointerException("directory should not be null.");
+    }
+    return new MatrixFileCache(directory, DEFAULT_MAX_BYTES, null);
+  }
+
+  /**
+   * @param maxBytes Size limit of the files of the directory, larger matrices are never stored
+   * @return New cache with the given size limit
+   * @throws IllegalArgumentException if {@code maxBytes} is negative
+   */
+  public MatrixFileCache withMaxBytes(long maxBytes) {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("maxBytes should not be negative.");
+    }
+    return new MatrixFileCache(directory, maxBytes, maxAge);
+  }
+
+  /**
+   * @param maxAge Duration after which a file that hasn't been used is removed, null to keep files until the size
+   *               limit is reached
+   * @return New cache with the given maximum age
+   * @throws IllegalArgumentException if {@code maxAge} is negative
+   */
+  public MatrixFileCache withMaxAge(Duration maxAge) {
+    if (maxAge != null && maxAge.isNegative()) {
+      throw new IllegalArgumentException("maxAge should not be negative.");
+    }
+    return new MatrixFileCache(directory, maxBytes, maxAge);
+  }
+
+  /**
+   * @return Directory of the cache
+   */
+  public Path directory() {
+    return directory;
+  }
+
+  /**
+   * Removes all the matrices of the cache.
+   *
+   * @throws IOException if a file can't be removed
+   */
+  public void clear() throws IOException {
+    for (Path file : files()) {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Maps the matrix of an instance, if it is in the cache.
+   *
+   * @param xs     X coordinates of the cities
+   * @param ys     Y coordinates of the cities
+   * @param kernel Kernel computing the distances between cities
+   * @return The mapped matrix, or null if it isn't in the cache
+   */
+  DistanceMatrix load(int[] xs, int[] ys, DistanceKernel kernel) {
+    Path file = file(kernel);
+    if (file == null || !Files.isRegularFile(file)) {
+      return null;
+    }
+    try {
+      if (isExpired(Files.getLastModifiedTime(file))) {
+        Files.deleteIfExists(file);
+        return null;
+      }
+      DistanceMatrix matrix = TspBinaryFormat.mapDistances(file, xs, ys);
+      if (matrix != null) {
+        // The modification time is the last use, to remove the least recently used files first
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+      }
+      return matrix;
+    } catch (IOException | TspParsingException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Stores the matrix of an instance, then removes the files exceeding the limits of the cache.
+   *
+   * @param xs        X coordinates of the cities
+   * @param ys        Y coordinates of the cities
+   * @param kernel    Kernel computing the distances between cities
+   * @param distances Distances between the cities
+   */
+  void store(int[] xs, int[] ys, DistanceKernel kernel, DistanceOracle distances) {
+    Path file = file(kernel);
+    long size = TspBinaryFormat.HEADER_SIZE + 2L * xs.length * Integer.BYTES
+        + BufferDistanceMatrix.sizeInBytes(xs.length);
+    if (file == null || size > maxBytes) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try {
+        TspBinaryFormat.write(xs, ys, distances, temporary);
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+      evict();
+    } catch (IOException e) {
+      // The cache is only an optimization
+    }
+  }
+
+  /**
+   * Removes the expired files, then the least recently used ones until the directory fits in its size limit.
+   */
+  private void evict() throws IOException {
+    record Entry(Path file, long size, FileTime lastUse) {
+    }
+
+    List<Entry> entries = new ArrayList<>();
+    long total = 0;
+    for (Path file : files()) {
+      FileTime lastUse = Files.getLastModifiedTime(file);
+      if (isExpired(lastUse)) {
+        Files.deleteIfExists(file);
+      } else {
+        entries.add(new Entry(file, Files.size(file), lastUse));
+        total += Files.size(file);
+      }
+    }
+
+    entries.sort(Comparator.comparing(Entry::lastUse));
+    for (int k = 0; k < entries.size() && total > maxBytes; k++) {
+      Files.deleteIfExists(entries.get(k).file());
+      total -= entries.get(k).size();
+    }
+  }
+
+  private boolean isExpired(FileTime lastUse) {
+    return maxAge != null && lastUse.toMillis() + maxAge.toMillis() < System.currentTimeMillis();
+  }
+
+  /**
+   * @return Files of the cache, empty if the directory doesn't exist
+   */
+  private List<Path> files() throws IOException {
+    List<Path> files = new ArrayList<>();
+    if (!Files.isDirectory(directory)) {
+      return files;
+    }
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+      stream.forEach(files::add);
+    }
+    return files;
+  }
+
+  /**
+   * @param kernel Kernel computing the distances between cities
+   * @return File of the matrix of the kernel, null if the kernel can't be cached
+   */
+  private Path file(DistanceKernel kernel) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError("SHA-256 is available on every Java platform", e);
+    }
+    if (!kernel.digest(digest)) {
+      return null;
+    }
+    return directory.resolve(HexFormat.of().formatHex(digest.digest()) + EXTENSION);
+  }
+}
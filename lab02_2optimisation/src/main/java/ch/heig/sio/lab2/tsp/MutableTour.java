@@ -0,0 +1,85 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>Tour modified in place by improvement heuristics, with the queries and the reversal needed by 2-opt and
+ * Lin-Kernighan moves.</p>
+ *
+ * <p>Cities have a position in {@code [0, size()[}, the city following the last position being the one at position
+ * 0. A reversal may reverse the rest of the tour instead of the requested path, which gives the same cycle traversed
+ * in the other direction: positions, {@link #next} and {@link #prev} must be read again after a reversal.</p>
+ *
+ * <p>Use {@link #of} to get the implementation suited to the size of the tour: an {@link ArrayTour} reverses paths in
+ * O(n) with the smallest constant, a {@link TwoLevelTour} in O(sqrt(n)).</p>
+ */
+public interface MutableTour {
+  /**
+   * Creates a tour visiting cities in the given order, with the representation reversing paths the fastest for its
+   * size.
+   *
+   * @param tour Cities in the order of the tour, copied
+   * @return The tour
+   * @throws IllegalArgumentException if the cities are not a permutation of {@code [0, tour.length[}
+   */
+  static MutableTour of(int[] tour) {
+    return tour.length < TwoLevelTour.MIN_CITIES ? new ArrayTour(tour) : new TwoLevelTour(tour);
+  }
+
+  /**
+   * @return Number of cities in the tour
+   */
+  int size();
+
+  /**
+   * @param city City index
+   * @return Position of the city in the tour
+   * @throws IndexOutOfBoundsException if {@code city} isn't in {@code [0, size()[}
+   */
+  int position(int city);
+
+  /**
+   * @param city City index
+   * @return City visited after this one
+   * @throws IndexOutOfBoundsException if {@code city} isn't in {@code [0, size()[}
+   */
+  int next(int city);
+
+  /**
+   * @param city City index
+   * @return City visited before this one
+   * @throws IndexOutOfBoundsException if {@code city} isn't in {@code [0, size()[}
+   */
+  int prev(int city);
+
+  /**
+   * @param a First city
+   * @param b City to locate
+   * @param c Last city
+   * @return true if {@code b} is visited when following the tour from {@code a} to {@code c}, both included
+   * @throws IndexOutOfBoundsException if a city isn't in {@code [0, size()[}
+   */
+  boolean between(int a, int b, int c);
+
+  /**
+   * Reverses the path from city {@code a} to city {@code b}, following the tour. The rest of the tour is reversed
+   * instead when it is shorter.
+   *
+   * @param a First city of the path
+   * @param b Last city of the path
+   * @throws IndexOutOfBoundsException if a city isn't in {@code [0, size()[}
+   */
+  void reversePath(int a, int b);
+
+  /**
+   * @return Cities in the order of the tour, starting at position 0
+   */
+  int[] toArray();
+
+  /**
+   * @param data   Instance of the cities
+   * @param length Length of the tour
+   * @return An immutable copy of this tour
+   */
+  default TspTour toTspTour(TspData data, long length) {
+    return new TspTour(data, toArray(), length);
+  }
+}
@@ -0,0 +1,82 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>A {@link DistanceMatrix} storing the upper triangle of the matrix, row by row without the diagonal, in a single
+ * flat array.</p>
+ *
+ * <p>Uses half the memory of {@link FullDistanceMatrix} and is limited to {@link #MAX_CITIES} cities.</p>
+ */
+final class PackedDistanceMatrix extends DistanceMatrix {
+  /** Largest number of entries an array can hold on common JVMs. */
+  private static final long MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+  /** Largest number of cities whose upper triangle fits in a single array. */
+  static final int MAX_CITIES = 65_536;
+
+  private final int[] distances;
+  /**
+   * Offset of each row in {@link #distances}, such that the distance between {@code i < j} is stored at
+   * {@code distances[rowOffsets[i] + j]}.
+   */
+  private final int[] rowOffsets;
+
+  /**
+   * @param n Number of cities, at most {@link #MAX_CITIES}
+   * @throws OutOfMemoryError if the matrix can't be allocated
+   */
+  PackedDistanceMatrix(int n) {
+    rowOffsets = rowOffsets(n);
+    distances = new int[entries(n)];
+  }
+
+  /**
+   * @param n Number of cities, at most {@link #MAX_CITIES}
+   * @return Number of entries of the upper triangle of the matrix, without the diagonal
+   * @throws OutOfMemoryError if there are too many entries for an array
+   */
+  static int entries(int n) {
+    long entries = (long) n * (n - 1) / 2;
+    if (entries > MAX_ARRAY_LENGTH) {
+      throw new OutOfMemoryError("Too many cities for a packed matrix: " + n);
+    }
+    return (int) entries;
+  }
+
+  /**
+   * @param n Number of cities
+   * @return Offset of each row, such that the distance between {@code i < j} is stored at index
+   * {@code rowOffsets[i] + j}
+   */
+  static int[] rowOffsets(int n) {
+    int[] rowOffsets = new int[n];
+
+    // Row i holds the distances to cities i+1..n-1, so it starts right after the n-i-1 entries of row i-1.
+    // The offset is shifted by i+1 so that the column can be added directly.
+    int rowStart = 0;
+    for (int i = 0; i < n; i++) {
+      rowOffsets[i] = rowStart - i - 1;
+      rowStart += n - i - 1;
+    }
+    return rowOffsets;
+  }
+
+  @Override
+  int get(int i, int j) {
+    if (i < j) {
+      return distances[rowOffsets[i] + j];
+    } else if (i > j) {
+      return distances[rowOffsets[j] + i];
+    } else {
+      return 0;
+    }
+  }
+
+  @Override
+  void set(int i, int j, int distance) {
+    distances[rowOffsets[i] + j] = distance;
+  }
+
+  @Override
+  DistanceBackend backend() {
+    return DistanceBackend.PACKED;
+  }
+}
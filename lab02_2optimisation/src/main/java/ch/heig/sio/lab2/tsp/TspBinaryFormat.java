@@ -0,0 +1,263 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Binary format of a TSP instance with {@link DistanceMetric#EUC_2D} distances, designed to be memory-mapped by
+ * {@link TspData#fromMappedFile}.</p>
+ *
+ * <p>All values are little-endian 32-bit integers:</p>
+ * <ul>
+ *   <li>a header of {@value #HEADER_SIZE} bytes: magic number {@code "TSPB"}, version, number of cities {@code n},
+ *   flags, then reserved space;</li>
+ *   <li>the coordinates of the cities, as {@code n} pairs {@code x, y};</li>
+ *   <li>if the flag {@link #FLAG_DISTANCES} is set, the upper triangle of the distance matrix, row by row without the
+ *   diagonal ({@code n * (n - 1) / 2} entries).</li>
+ * </ul>
+ *
+ * <p>Can be run to convert a text instance: {@code TspBinaryFormat <input.dat> <output.bin> [--no-distances]}.</p>
+ */
+public final class TspBinaryFormat {
+  /** "TSPB" in ASCII. */
+  static final int MAGIC = 0x54535042;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 32;
+  /** Set when the file contains the distance matrix. */
+  static final int FLAG_DISTANCES = 1;
+  static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+  /** Size of the buffer used when writing files. */
+  private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Converts a text instance to the binary format.
+   *
+   * @param args {@code <input.dat> <output.bin> [--no-distances]}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].equals("--no-distances"))) {
+      System.err.println("Usage: TspBinaryFormat <input.dat> <output.bin> [--no-distances]");
+      System.exit(1);
+    }
+    write(TspData.fromFile(args[0]), Path.of(args[1]), args.length == 2);
+  }
+
+  /**
+   * Writes an instance to a file in the binary format.
+   *
+   * @param data          Instance to write
+   * @param file          Destination file, replaced if it exists
+   * @param withDistances Whether the distance matrix should be written
+   * @throws IOException              if the file can't be written
+   * @throws IllegalArgumentException if the metric of the instance isn't {@link DistanceMetric#EUC_2D}
+   */
+  public static void write(TspData data, Path file, boolean withDistances) throws IOException {
+    // Only integer coordinates are stored, enough to recompute euclidean distances only
+    if (data.getMetric() != DistanceMetric.EUC_2D) {
+      throw new IllegalArgumentException("Only EUC_2D instances can be written, not " + data.getMetric() + ".");
+    }
+    int n = data.getNumberOfCities();
+    int[] xs = new int[n];
+    int[] ys = new int[n];
+    for (int i = 0; i < n; i++) {
+      TspData.City city = data.getCityCoord(i);
+      xs[i] = city.x();
+      ys[i] = city.y();
+    }
+    write(xs, ys, withDistances ? data.getDistanceOracle() : null, file);
+  }
+
+  /**
+   * Writes coordinates and distances to a file in the binary format.
+   *
+   * @param xs        X coordinates of the cities
+   * @param ys        Y coordinates of the cities
+   * @param distances Distances between the cities, null to only write the coordinates
+   * @param file      Destination file, replaced if it exists
+   * @throws IOException if the file can't be written
+   */
+  static void write(int[] xs, int[] ys, DistanceOracle distances, Path file) throws IOException {
+    int n = xs.length;
+    try (Writer writer = new Writer(file, n, distances != null)) {
+      for (int i = 0; i < n; i++) {
+        writer.putInt(xs[i]);
+        writer.putInt(ys[i]);
+      }
+      if (distances != null) {
+        for (int i = 0; i < n; i++) {
+          for (int j = i + 1; j < n; j++) {
+            writer.putInt(distances.distance(i, j));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Maps a file in the binary format. The coordinates are copied, the distance matrix (if any) stays mapped.
+   *
+   * @param file    File to read
+   * @param options Options used to compute the distances if the file doesn't contain them
+   * @return The instance
+   * @throws TspParsingException if the file content does not conform to the format
+   * @throws IOException         if the file can't be read
+   */
+  static TspData read(Path file, TspLoadOptions options) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      Header header = readHeader(channel);
+      int n = header.n();
+      boolean hasDistances = header.hasDistances();
+      long coordinatesSize = 2L * n * Integer.BYTES;
+
+      int[] xs = new int[n];
+      int[] ys = new int[n];
+      MappedByteBuffer coordinates = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, coordinatesSize);
+      coordinates.order(ORDER);
+      for (int i = 0; i < n; i++) {
+        xs[i] = coordinates.getInt();
+        ys[i] = coordinates.getInt();
+      }
+
+      if (!hasDistances) {
+        return TspData.create(xs, ys, options);
+      }
+      return TspData.fromStorage(xs, ys,
+          BufferDistanceMatrix.map(channel, HEADER_SIZE + coordinatesSize, n, ORDER));
+    }
+  }
+
+  /**
+   * Maps the distance matrix of a file in the binary format, if it holds the distances between the given cities.
+   *
+   * @param file File to read
+   * @param xs   Expected X coordinates of the cities
+   * @param ys   Expected Y coordinates of the cities
+   * @return The mapped matrix, or null if the file doesn't contain distances or has other coordinates
+   * @throws TspParsingException if the file content does not conform to the format
+   * @throws IOException         if the file can't be read
+   */
+  static BufferDistanceMatrix mapDistances(Path file, int[] xs, int[] ys) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      Header header = readHeader(channel);
+      int n = header.n();
+      if (!header.hasDistances() || n != xs.length) {
+        return null;
+      }
+
+      long coordinatesSize = 2L * n * Integer.BYTES;
+      MappedByteBuffer coordinates = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, coordinatesSize);
+      coordinates.order(ORDER);
+      for (int i = 0; i < n; i++) {
+        if (coordinates.getInt() != xs[i] || coordinates.getInt() != ys[i]) {
+          return null;
+        }
+      }
+      return BufferDistanceMatrix.map(channel, HEADER_SIZE + coordinatesSize, n, ORDER);
+    }
+  }
+
+  /**
+   * Reads and validates the header of a file, including the size of the file.
+   *
+   * @param channel Channel of the file
+   * @return The header
+   * @throws TspParsingException if the file content does not conform to the format
+   * @throws IOException         if the file can't be read
+   */
+  private static Header readHeader(FileChannel channel) throws IOException {
+    long size = channel.size();
+    if (size < HEADER_SIZE) {
+      throw new TspParsingException("Invalid binary data. File is too short for a header.");
+    }
+
+    ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE).order(ORDER);
+    if (header.getInt() != MAGIC) {
+      throw new TspParsingException("Invalid binary data. Not a TSP binary file.");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new TspParsingException("Invalid binary data. Unsupported version " + version + ".");
+    }
+    int n = header.getInt();
+    if (n < 1) {
+      throw new TspParsingException("Invalid binary data. Number of cities should be at least 1.");
+    }
+    boolean hasDistances = (header.getInt() & FLAG_DISTANCES) != 0;
+
+    long coordinatesSize = 2L * n * Integer.BYTES;
+    long expectedSize = HEADER_SIZE + coordinatesSize + (hasDistances ? BufferDistanceMatrix.sizeInBytes(n) : 0);
+    if (size != expectedSize) {
+      throw new TspParsingException(
+          String.format("Invalid binary data. %d bytes expected, %d read.", expectedSize, size));
+    }
+    return new Header(n, hasDistances);
+  }
+
+  /**
+   * Content of the header of a file.
+   *
+   * @param n            Number of cities
+   * @param hasDistances Whether the file contains the distance matrix
+   */
+  private record Header(int n, boolean hasDistances) {
+  }
+
+  /**
+   * Streams the content of a binary file through a fixed size buffer.
+   */
+  static final class Writer implements AutoCloseable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ORDER);
+
+    /**
+     * Creates the file and writes its header. The coordinates, then the distances, have to be written afterward.
+     *
+     * @param file          Destination file, replaced if it exists
+     * @param n             Number of cities
+     * @param withDistances Whether the distance matrix will be written
+     * @throws IOException if the file can't be written
+     */
+    Writer(Path file, int n, boolean withDistances) throws IOException {
+      channel = FileChannel.open(file,
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+      buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(withDistances ? FLAG_DISTANCES : 0);
+      while (buffer.position() < HEADER_SIZE) {
+        buffer.put((byte) 0);
+      }
+    }
+
+    void putInt(int value) throws IOException {
+      if (!buffer.hasRemaining()) {
+        flush();
+      }
+      buffer.putInt(value);
+    }
+
+    private void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        flush();
+      } finally {
+        channel.close();
+      }
+    }
+  }
+
+  private TspBinaryFormat() {
+    throw new AssertionError("Can't instantiate a utility class");
+  }
+}
@@ -1,42 +1,55 @@
 package ch.heig.sio.lab2.tsp;
 
-import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.util.Arrays;
-import java.util.InputMismatchException;
-import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
 
 /**
  * <p>Class storing immutable data for an instance of the TSP.</p>
  *
  * <p>Access to distance between cities is provided in constant time to the number of cities, result may or may not
- * be precomputed depending on the amount of available memory.</p>
+ * be precomputed depending on the amount of available memory. The storage of the distances can be chosen with
+ * {@link TspLoadOptions}, see {@link DistanceBackend}.</p>
  *
  * <p>Each instance contains at least one city.</p>
  */
 public final class TspData {
-  private static final int MIN_CITIES = 1;
-
-  /** Array of cities in the TSP instance. */
-  private final City[] cities;
-  /** Symmetric matrix of distances between cities. Null if not enough memory is available to store it. */
-  private final int[][] distanceMatrix;
+  /** X coordinates of the cities in the TSP instance. */
+  private final int[] xs;
+  /** Y coordinates of the cities in the TSP instance. */
+  private final int[] ys;
+  /** Computes the distances between cities with the metric of the instance. */
+  private final DistanceKernel kernel;
+  /** Distances between cities, precomputed or not depending on the backend. */
+  private final DistanceStorage distances;
+  /** Row of each city in the distance storage, null if cities are stored in their own order. */
+  private final int[] rows;
+  /** Widest candidate lists computed so far, null until they are first requested. */
+  private CandidateLists candidateLists;
+  /** Delaunay graph of the cities, null until it is first requested. */
+  private DelaunayGraph delaunayGraph;
 
   /**
    * Creates a new TspData.
    *
-   * @param cities         Array of cities.
-   * @param distanceMatrix Matrix of distances between cities.
+   * @param xs        X coordinates of the cities.
+   * @param ys        Y coordinates of the cities.
+   * @param kernel    Kernel computing the distances between cities.
+   * @param distances Distances between cities.
+   * @param rows      Row of each city in the distance storage, null if cities are stored in their own order.
    */
-  private TspData(final City[] cities, final int[][] distanceMatrix) {
-    this.cities = cities;
-    this.distanceMatrix = distanceMatrix;
+  private TspData(final int[] xs, final int[] ys, final DistanceKernel kernel, final DistanceStorage distances,
+                  final int[] rows) {
+    this.xs = xs;
+    this.ys = ys;
+    this.kernel = kernel;
+    this.distances = distances;
+    this.rows = rows;
   }
 
   /**
-   * Creates a new TspData instance from a text file containing cities' data.
+   * Creates a new TspData instance from a text file containing cities' data, with the default options.
    *
    * @param filename name of the file to read from.
    * @throws FileNotFoundException If file can't be found.
@@ -44,66 +57,54 @@ public final class TspData {
    * @throws OutOfMemoryError      If the number of cities is too large.
    */
   public static TspData fromFile(final String filename) throws TspParsingException, FileNotFoundException {
-    try (Scanner scanner = new Scanner(new BufferedReader(new FileReader(filename)))) {
-      // Check that inputStream is open and not empty
-      try {
-        if (!scanner.hasNext()) {
-          throw new TspParsingException("Invalid data. Empty data.");
-        }
-      } catch (IllegalStateException e) {
-        throw new TspParsingException("Invalid data. Unable to read data.");
-      }
-
-      // Read the number of cities
-      int numberOfCities;
-      try {
-        numberOfCities = scanner.nextInt();
-      } catch (InputMismatchException e) {
-        throw new TspParsingException("Invalid data value. Invalid number of cities in first line of data file.");
-      } catch (NoSuchElementException e) {
-        throw new TspParsingException("Invalid data format. Empty data file.");
-      }
-      if (numberOfCities < MIN_CITIES) {
-        throw new TspParsingException("Invalid data value. Number of cities should be at least " + MIN_CITIES + ".");
-      }
-
+    return fromFile(filename, TspLoadOptions.defaults());
+  }
 
-      // Allocate the array storing the XY coordinates of the cities
-      City[] cities;
-      try {
-        cities = new City[numberOfCities];
-      } catch (OutOfMemoryError e) {
-        throw new OutOfMemoryError("Out of memory error. Number of cities is too large.");
-      }
+  /**
+   * Creates a new TspData instance from a text file containing cities' data.
+   *
+   * @param filename name of the file to read from.
+   * @param options  options used to load the instance.
+   * @throws FileNotFoundException If file can't be found.
+   * @throws TspParsingException   If file content does not conform to expected format.
+   * @throws OutOfMemoryError      If the number of cities is too large.
+   */
+  public static TspData fromFile(final String filename, final TspLoadOptions options)
+      throws TspParsingException, FileNotFoundException {
+    DatFileParser.Coordinates coordinates = DatFileParser.parse(filename);
+    return create(coordinates.xs(), coordinates.ys(), options);
+  }
 
-      // Read the coordinates of each city
-      for (int cityReadCount = 0; cityReadCount < numberOfCities; cityReadCount++) {
-        try {
-          int cityNumber = scanner.nextInt();
-          if (cityNumber != cityReadCount) {
-            throw new TspParsingException(
-                String.format("Invalid city number: %s expected, %s read.", cityNumber, cityReadCount));
-          }
-          int x = scanner.nextInt();
-          int y = scanner.nextInt();
-          cities[cityNumber] = new City(x, y);
-        } catch (InputMismatchException e) {
-          throw new TspParsingException("Invalid data value. City numbers and coordinates should be non negative integers.");
-        } catch (NoSuchElementException e) {
-          throw new TspParsingException(
-              "Incomplete line : should follow format \"<city number> <u> <v>\""
-          );
-        } catch (IllegalStateException e) {
-          throw new TspParsingException("Invalid data. Unable to read data.");
-        }
-      }
+  /**
+   * Creates a new TspData instance from a file in the TSPLIB format, with the default options.
+   *
+   * @param filename name of the file to read from.
+   * @throws FileNotFoundException If file can't be found.
+   * @throws TspParsingException   If file content does not conform to the subset of TSPLIB supported, see
+   *                               {@link DistanceMetric}.
+   */
+  public static TspData fromTspLibFile(final String filename) throws TspParsingException, FileNotFoundException {
+    return fromTspLibFile(filename, TspLoadOptions.defaults());
+  }
 
-      return new TspData(cities, computeDistanceMatrix(cities));
-    }
+  /**
+   * <p>Creates a new TspData instance from a file in the TSPLIB format.</p>
+   *
+   * <p>Cities are numbered from 0, i.e. city {@code i} is the city {@code i + 1} of the file. Distances are computed
+   * with the {@code EDGE_WEIGHT_TYPE} of the instance, see {@link DistanceMetric}.</p>
+   *
+   * @param filename name of the file to read from.
+   * @param options  options used to load the instance.
+   * @throws FileNotFoundException If file can't be found.
+   * @throws TspParsingException   If file content does not conform to the subset of TSPLIB supported.
+   */
+  public static TspData fromTspLibFile(final String filename, final TspLoadOptions options)
+      throws TspParsingException, FileNotFoundException {
+    return TspLibReader.read(filename, options);
   }
 
   /**
-   * <p>Creates a new TspData instance from an array of {@link City}.</p>
+   * <p>Creates a new TspData instance from an array of {@link City}, with the default options.</p>
    *
    * <p>Cities indexes are used as city numbers.</p>
    *
@@ -112,32 +113,204 @@ public final class TspData {
    * @throws NullPointerException     if {@code cities} or one of its elements is null
    */
   public static TspData fromArray(City[] cities) {
+    return fromArray(cities, TspLoadOptions.defaults());
+  }
+
+  /**
+   * <p>Creates a new TspData instance from an array of {@link City}.</p>
+   *
+   * <p>Cities indexes are used as city numbers.</p>
+   *
+   * @param cities  cities.
+   * @param options options used to load the instance.
+   * @throws IllegalArgumentException if {@code cities} is empty
+   * @throws NullPointerException     if {@code cities}, one of its elements or {@code options} is null
+   */
+  public static TspData fromArray(City[] cities, TspLoadOptions options) {
     if (cities.length == 0) {
       throw new IllegalArgumentException("cities array should not be empty.");
     }
-    return new TspData(Arrays.copyOf(cities, cities.length), computeDistanceMatrix(cities));
+    int[] xs = new int[cities.length];
+    int[] ys = new int[cities.length];
+    for (int i = 0; i < cities.length; i++) {
+      xs[i] = cities[i].x();
+      ys[i] = cities[i].y();
+    }
+    return create(xs, ys, options);
+  }
+
+  /**
+   * <p>Creates a new TspData instance by memory-mapping a file in the binary format described in
+   * {@link TspBinaryFormat}, with the default options.</p>
+   *
+   * <p>If the file contains the distance matrix, it is used directly from the mapping
+   * ({@link DistanceBackend#MAPPED}) instead of being recomputed.</p>
+   *
+   * @param filename name of the file to read from.
+   * @throws IOException         If file can't be read.
+   * @throws TspParsingException If file content does not conform to expected format.
+   */
+  public static TspData fromMappedFile(final String filename) throws TspParsingException, IOException {
+    return fromMappedFile(filename, TspLoadOptions.defaults());
+  }
+
+  /**
+   * <p>Creates a new TspData instance by memory-mapping a file in the binary format described in
+   * {@link TspBinaryFormat}.</p>
+   *
+   * <p>If the file contains the distance matrix, it is used directly from the mapping
+   * ({@link DistanceBackend#MAPPED}) instead of being recomputed. Otherwise, the distances are computed according to
+   * the options.</p>
+   *
+   * @param filename name of the file to read from.
+   * @param options  options used to load the instance if the file doesn't contain the distances.
+   * @throws IOException         If file can't be read.
+   * @throws TspParsingException If file content does not conform to expected format.
+   */
+  public static TspData fromMappedFile(final String filename, final TspLoadOptions options)
+      throws TspParsingException, IOException {
+    return TspBinaryFormat.read(Path.of(filename), options);
+  }
+
+  /**
+   * Creates a new TspData with euclidean distances, using already available distances.
+   *
+   * @param xs        X coordinates of the cities, ownership is transferred to the instance.
+   * @param ys        Y coordinates of the cities, ownership is transferred to the instance.
+   * @param distances Distances between cities.
+   */
+  static TspData fromStorage(int[] xs, int[] ys, DistanceStorage distances) {
+    return new TspData(xs, ys, DistanceKernel.euclidean(xs, ys), distances, null);
+  }
+
+  /**
+   * Creates a new TspData with euclidean distances, precomputing them with the backend requested in the options when
+   * enough memory is available.
+   *
+   * @param xs      X coordinates of the cities, ownership is transferred to the instance.
+   * @param ys      Y coordinates of the cities, ownership is transferred to the instance.
+   * @param options Options used to load the instance.
+   */
+  static TspData create(int[] xs, int[] ys, TspLoadOptions options) {
+    return create(xs, ys, DistanceKernel.euclidean(xs, ys), options);
+  }
+
+  /**
+   * Creates a new TspData, precomputing the distances with the backend requested in the options when enough memory
+   * is available.
+   *
+   * @param xs      X coordinates of the cities, ownership is transferred to the instance.
+   * @param ys      Y coordinates of the cities, ownership is transferred to the instance.
+   * @param kernel  Kernel computing the distances between cities.
+   * @param options Options used to load the instance.
+   */
+  static TspData create(int[] xs, int[] ys, DistanceKernel kernel, TspLoadOptions options) {
+    if (kernel instanceof DistanceKernel.Explicit explicit) {
+      // The kernel keeps the parsed matrix alive, a second matrix filled from it would double the memory used
+      return new TspData(xs, ys, kernel, explicit.weights(), null);
+    }
+    DistanceBackend backend = options.backend();
+    // A mapped matrix only exists when loaded from a binary file, otherwise choose automatically
+    if (backend == null || backend == DistanceBackend.MAPPED) {
+      MatrixFileCache cache = options.matrixCache();
+      DistanceMatrix cached = cache != null ? cache.load(xs, ys, kernel) : null;
+
+      // Prefer the compact on-heap layouts, then move out of the heap for the largest instances
+      DistanceMatrix matrix = allocateMatrix(DistanceBackend.COMPACT, kernel, xs.length);
+      if (cached != null) {
+        if (matrix == null) {
+          // Too large for the heap: the mapped matrix is used in place, in the order of its file
+          return new TspData(xs, ys, kernel, cached, null);
+        }
+        // Copying the cached matrix is faster than computing it, and the compact layout is faster to read
+        return create(xs, ys, kernel, new DistanceKernel.Stored(cached, kernel), matrix, options);
+      }
+      if (matrix == null) {
+        matrix = allocateMatrix(DistanceBackend.OFF_HEAP, kernel, xs.length);
+      }
+      TspData data = create(xs, ys, kernel, kernel, matrix, options);
+      if (cache != null && matrix != null) {
+        cache.store(xs, ys, kernel, data.getDistanceOracle());
+      }
+      return data;
+    }
+    return create(xs, ys, kernel, kernel, allocateMatrix(backend, kernel, xs.length), options);
   }
 
-  private static int[][] computeDistanceMatrix(City[] cities) {
-    // Try to allocate the distance matrix between cities.
-    // If not enough space is available, set distanceMatrix to null (distances will have to be recomputed
-    // each time in getDistance(i,j)).
-    int[][] distanceMatrix;
+  /**
+   * Creates a new TspData, filling the given matrix with the distances between cities.
+   *
+   * @param xs      X coordinates of the cities, ownership is transferred to the instance.
+   * @param ys      Y coordinates of the cities, ownership is transferred to the instance.
+   * @param kernel  Kernel computing the distances between cities.
+   * @param source  Kernel the matrix is filled from, giving the same distances as {@code kernel}.
+   * @param matrix  Empty matrix to fill, null if distances have to be recomputed each time in getDistance(i,j).
+   * @param options Options used to load the instance.
+   */
+  private static TspData create(int[] xs, int[] ys, DistanceKernel kernel, DistanceKernel source,
+                                DistanceMatrix matrix, TspLoadOptions options) {
+    if (matrix == null) {
+      DistanceCache cache = allocateCache(options.distanceCacheBytes());
+      return new TspData(xs, ys, kernel, new ComputedDistanceStorage(kernel, cache), null);
+    }
+    if (!options.hilbertOrder()) {
+      matrix.fill(source, xs.length, options.parallelism());
+      return new TspData(xs, ys, kernel, matrix, null);
+    }
+
+    // Row r of the matrix holds the distances of cities[r]
+    int[] cities = HilbertCurve.order(xs, ys);
+    int[] rows = new int[cities.length];
+    for (int r = 0; r < cities.length; r++) {
+      rows[cities[r]] = r;
+    }
+    matrix.fill(new DistanceKernel.Renumbered(source, cities), xs.length, options.parallelism());
+    return new TspData(xs, ys, kernel, matrix, rows);
+  }
+
+  /**
+   * Tries to allocate a distance matrix with the given backend.
+   *
+   * @param backend Backend of the matrix.
+   * @param kernel  Kernel computing the distances between cities.
+   * @param n       Number of cities.
+   * @return An empty matrix, or null if there is not enough memory or if the backend doesn't store distances.
+   */
+  private static DistanceMatrix allocateMatrix(DistanceBackend backend, DistanceKernel kernel, int n) {
+    if ((backend == DistanceBackend.PACKED || backend == DistanceBackend.COMPACT)
+        && n > PackedDistanceMatrix.MAX_CITIES) {
+      return null;
+    }
     try {
-      distanceMatrix = new int[cities.length][cities.length];
+      return switch (backend) {
+        case FULL -> new FullDistanceMatrix(n);
+        case PACKED -> new PackedDistanceMatrix(n);
+        case COMPACT -> kernel.maxDistance() <= CompactDistanceMatrix.MAX_DISTANCE
+            ? new CompactDistanceMatrix(n)
+            : new PackedDistanceMatrix(n);
+        case OFF_HEAP -> BufferDistanceMatrix.allocateDirect(n);
+        case MAPPED, COMPUTED -> null;
+      };
     } catch (OutOfMemoryError e) {
       return null;
     }
+  }
 
-    for (int i = 0; i < cities.length; i++) {
-      distanceMatrix[i][i] = 0;
-      for (int j = 0; j < i; j++) {
-        distanceMatrix[i][j] = distanceMatrix[j][i] =
-            (int) Math.round(Math.hypot(cities[i].x - cities[j].x, cities[i].y - cities[j].y));
-      }
+  /**
+   * Tries to allocate a distance cache.
+   *
+   * @param budget Memory budget of the cache, 0 to disable it.
+   * @return An empty cache, or null if disabled or if there is not enough memory.
+   */
+  private static DistanceCache allocateCache(long budget) {
+    if (budget == 0) {
+      return null;
+    }
+    try {
+      return new DistanceCache(budget);
+    } catch (OutOfMemoryError | IllegalArgumentException e) {
+      return null;
     }
-
-    return distanceMatrix;
   }
 
   /**
@@ -153,16 +326,226 @@ public final class TspData {
     assertInBounds(i);
     assertInBounds(j);
 
-    // If distanceMatrix was not allocated, compute distance from i to j.
-    if (distanceMatrix == null) {
-      return (int) Math.round(Math.hypot(cities[i].x - cities[j].x, cities[i].y - cities[j].y));
-    } else {
-      return distanceMatrix[i][j];
+    if (rows != null) {
+      return distances.get(rows[i], rows[j]);
+    }
+    return distances.get(i, j);
+  }
+
+  /**
+   * <p>Returns an unchecked accessor to the distances, for loops evaluating many distances.</p>
+   *
+   * <p>Its {@link DistanceOracle#distance} returns the same values as {@link #getDistance}, without validating the
+   * indexes: the caller is responsible for passing cities in {@code [0, getNumberOfCities()[}.</p>
+   *
+   * @return The oracle of this instance.
+   */
+  public DistanceOracle getDistanceOracle() {
+    return rows != null ? new DistanceStorage.Renumbered(distances, rows) : distances;
+  }
+
+  /**
+   * <p>Returns the rows of some cities in the distance storage, for loops reading the distances by row.</p>
+   *
+   * <p>The rows differ from the cities when the matrix is ordered along a Hilbert curve
+   * ({@link TspLoadOptions#withHilbertOrder}) and in the views created by {@link #subset}. The oracle of
+   * {@link #getDistanceOracle} then translates both cities on each access, while the one of
+   * {@link #getRowDistanceOracle} reads the rows directly. Several cities of a view may share a row, so a loop working
+   * with rows keeps the cities next to them instead of translating the rows back.</p>
+   *
+   * @param cities City indexes.
+   * @return A new array with the row of {@code cities[k]} at index {@code k}.
+   *
+   * @throws IndexOutOfBoundsException If one of the cities is out of bounds.
+   */
+  public int[] toRows(int[] cities) {
+    int[] cityRows = new int[cities.length];
+    for (int k = 0; k < cities.length; k++) {
+      assertInBounds(cities[k]);
+      cityRows[k] = rows != null ? rows[cities[k]] : cities[k];
+    }
+    return cityRows;
+  }
+
+  /**
+   * <p>Returns an unchecked accessor to the distances between rows of the storage, see {@link #toRows}.</p>
+   *
+   * <p>Its {@link DistanceOracle#distance} takes rows returned by {@link #toRows}: the distance between the rows of two
+   * cities is the distance between the cities. Other indexes give an undefined result.</p>
+   *
+   * @return The oracle of the storage of this instance.
+   */
+  public DistanceOracle getRowDistanceOracle() {
+    return distances;
+  }
+
+  /**
+   * <p>Returns the distances between a city and many others, in a single call.</p>
+   *
+   * <p>When the distances are not precomputed, they are computed in bulk, with SIMD instructions if the
+   * {@code jdk.incubator.vector} module is available ({@code --add-modules jdk.incubator.vector}). This is faster than
+   * calling {@link #getDistance} for each target in loops evaluating one city against many others.</p>
+   *
+   * @param city    Source city index.
+   * @param targets Target city indexes, only the first {@code count} ones are used.
+   * @param count   Number of targets.
+   * @param out     Array receiving the distance from {@code city} to {@code targets[k]} at index {@code k}.
+   *
+   * @throws IndexOutOfBoundsException If city or one of the targets is out of bounds, or if {@code count} exceeds the
+   *                                   length of {@code targets} or {@code out}.
+   */
+  public void distancesFrom(int city, int[] targets, int count, int[] out) {
+    assertInBounds(city);
+    Objects.checkFromIndexSize(0, count, targets.length);
+    Objects.checkFromIndexSize(0, count, out.length);
+    for (int k = 0; k < count; k++) {
+      assertInBounds(targets[k]);
+    }
+    if (rows != null) {
+      int row = rows[city];
+      for (int k = 0; k < count; k++) {
+        out[k] = distances.get(row, rows[targets[k]]);
+      }
+      return;
     }
+    distances.distancesFrom(city, targets, count, out);
   }
 
+  /**
+   * Returns the distances between a city and many others, in a single call. See
+   * {@link #distancesFrom(int, int[], int, int[])}.
+   *
+   * @param city    Source city index.
+   * @param targets Target city indexes.
+   * @param out     Array receiving the distance from {@code city} to {@code targets[k]} at index {@code k}.
+   *
+   * @throws IndexOutOfBoundsException If city or one of the targets is out of bounds, or if {@code out} is shorter
+   *                                   than {@code targets}.
+   */
+  public void distancesFrom(int city, int[] targets, int[] out) {
+    distancesFrom(city, targets, targets.length, out);
+  }
+
+  /**
+   * Computes the distance between two cities, even if it is precomputed.
+   *
+   * @param i First city index.
+   * @param j Second city index.
+   * @return Distance between the two cities.
+   *
+   * @throws IndexOutOfBoundsException If i or j are out of bounds.
+   */
   public int computeDistance(int i, int j) {
-    return (int) Math.round(Math.hypot(cities[i].x - cities[j].x, cities[i].y - cities[j].y));
+    assertInBounds(i);
+    assertInBounds(j);
+    return kernel.distance(i, j);
+  }
+
+  /**
+   * Returns the metric used to compute the distances between cities.
+   *
+   * @return Metric of the instance, {@link DistanceMetric#EUC_2D} for instances loaded from the text format.
+   */
+  public DistanceMetric getMetric() {
+    return kernel.metric();
+  }
+
+  /**
+   * @return Kernel computing the distances between cities
+   */
+  DistanceKernel kernel() {
+    return kernel;
+  }
+
+  /**
+   * Returns the storage used for the distances between cities.
+   *
+   * @return Backend actually used, {@link DistanceBackend#COMPUTED} if distances are not precomputed.
+   */
+  public DistanceBackend getDistanceBackend() {
+    return distances.backend();
+  }
+
+  /**
+   * Returns the cache of the distances, only used when distances are not precomputed.
+   *
+   * @return The cache and its statistics, null if the distances are precomputed or if the cache is disabled.
+   */
+  public DistanceCache getDistanceCache() {
+    return distances instanceof ComputedDistanceStorage computed ? computed.cache() : null;
+  }
+
+  /**
+   * <p>Returns the k nearest neighbours of each city, sorted by increasing distance.</p>
+   *
+   * <p>Lists are computed on the first call and cached: later calls asking for at most as many neighbours share the
+   * same storage, while asking for more recomputes them.</p>
+   *
+   * @param k Number of neighbours per city, reduced to the number of other cities if larger.
+   * @return The candidate lists.
+   *
+   * @throws IllegalArgumentException If k is negative.
+   */
+  public synchronized CandidateLists getCandidateLists(int k) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k should not be negative.");
+    }
+    k = Math.min(k, xs.length - 1);
+    if (candidateLists == null || candidateLists.k() < k) {
+      candidateLists = CandidateLists.build(kernel, xs.length, k);
+    }
+    return candidateLists.truncate(k);
+  }
+
+  /**
+   * <p>Returns the graph of the Delaunay triangulation of the cities, a sparse set of candidate edges.</p>
+   *
+   * <p>The graph is computed on the first call, in O(n log n) expected time, and cached.</p>
+   *
+   * @return The Delaunay graph.
+   *
+   * @throws IllegalArgumentException If the metric isn't planar: {@link DistanceMetric#GEO} and
+   *                                  {@link DistanceMetric#EXPLICIT} are not supported.
+   */
+  public synchronized DelaunayGraph getDelaunayGraph() {
+    if (delaunayGraph == null) {
+      if (!(kernel instanceof DistanceKernel.Planar planar)) {
+        throw new IllegalArgumentException("A Delaunay graph needs planar coordinates, not " + getMetric() + ".");
+      }
+      delaunayGraph = DelaunayGraph.build(planar.xs, planar.ys);
+    }
+    return delaunayGraph;
+  }
+
+  /**
+   * <p>Returns a view of some of the cities of this instance, for solvers working on many sub-problems.</p>
+   *
+   * <p>City {@code k} of the view is city {@code cityIds[k]} of this instance. The view shares the distance storage of
+   * this instance, with its indexes remapped: no distance is computed or copied, only the coordinates of the cities
+   * of the view are, in O(k). Candidate lists and the Delaunay graph of the view are computed for its cities only.</p>
+   *
+   * @param cityIds Indexes of the cities of the view, in this instance. A city given twice is a duplicated city.
+   * @return The view.
+   *
+   * @throws IndexOutOfBoundsException If one of the cities is out of bounds.
+   * @throws IllegalArgumentException  If no city is given.
+   */
+  public TspData subset(int[] cityIds) {
+    if (cityIds.length == 0) {
+      throw new IllegalArgumentException("A subset should contain at least one city.");
+    }
+    int[] cities = cityIds.clone();
+    int[] subXs = new int[cities.length];
+    int[] subYs = new int[cities.length];
+    int[] subRows = new int[cities.length];
+    for (int k = 0; k < cities.length; k++) {
+      int city = cities[k];
+      assertInBounds(city);
+      subXs[k] = xs[city];
+      subYs[k] = ys[city];
+      subRows[k] = rows != null ? rows[city] : city;
+    }
+    return new TspData(subXs, subYs, kernel.subset(cities), distances, subRows);
   }
 
   /**
@@ -171,7 +554,7 @@ public final class TspData {
    * @return Number of cities.
    */
   public int getNumberOfCities() {
-    return cities.length;
+    return xs.length;
   }
 
   /**
@@ -184,7 +567,7 @@ public final class TspData {
    */
   public City getCityCoord(int city) {
     assertInBounds(city);
-    return cities[city];
+    return new City(xs[city], ys[city]);
   }
 
   /**
@@ -194,8 +577,8 @@ public final class TspData {
    * @throws IndexOutOfBoundsException If i is out of bounds.
    */
   private void assertInBounds(int i) {
-    if (i < 0 || i >= cities.length) {
-      throw new IndexOutOfBoundsException("City index {" + i + "} out of bounds. Domain: [0, " + cities.length + "[");
+    if (i < 0 || i >= xs.length) {
+      throw new IndexOutOfBoundsException("City index {" + i + "} out of bounds. Domain: [0, " + xs.length + "[");
     }
   }
 
@@ -0,0 +1,255 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * <p>Generator of random instances with {@link DistanceMetric#EUC_2D} distances, to study how heuristics scale
+ * beyond the instances shipped as files.</p>
+ *
+ * <p>Cities have integer coordinates in a square of a given size, following a {@link CityDistribution}. Instances
+ * are reproducible: the same options and seed always give the same cities. Generators are immutable, start from
+ * {@link #of} and derive new ones with the {@code with*} methods.</p>
+ *
+ * <p>Cities are generated one by one, either directly into the arrays of a {@link TspData} or streamed to a file in
+ * the text format or in the {@link TspBinaryFormat}, so that huge instances can be written without holding them in
+ * memory.</p>
+ *
+ * <p>Can be run to write an instance:
+ * {@code TspGenerator <uniform|clustered|jittered_grid> <number of cities> <seed> <output.dat|output.bin>}.</p>
+ */
+public final class TspGenerator {
+  /** Default size of the square, as in the DIMACS TSP challenge. */
+  private static final int DEFAULT_SIZE = 1_000_000;
+  /** Default number of cities per cluster, as in the DIMACS TSP challenge. */
+  private static final int CITIES_PER_CLUSTER = 10;
+  private static final double DEFAULT_JITTER = 0.5;
+
+  private final CityDistribution distribution;
+  private final int numberOfCities;
+  private final long seed;
+  /** Coordinates are in {@code [0, size[}. */
+  private final int size;
+  /** Number of clusters, 0 for the default. */
+  private final int clusters;
+  /** Width of the area around the center of its cell where a city is placed, as a fraction of the cell size. */
+  private final double jitter;
+
+  /**
+   * Functional interface receiving the generated cities.
+   */
+  @FunctionalInterface
+  private interface CityConsumer {
+    void accept(int x, int y) throws IOException;
+  }
+
+  private TspGenerator(CityDistribution distribution, int numberOfCities, long seed, int size, int clusters,
+                       double jitter) {
+    this.distribution = distribution;
+    this.numberOfCities = numberOfCities;
+    this.seed = seed;
+    this.size = size;
+    this.clusters = clusters;
+    this.jitter = jitter;
+  }
+
+  /**
+   * Creates a generator of cities in a square of size 1'000'000. Clusters have 10 cities on average, and cities of
+   * a jittered grid move up to a quarter of the size of their cell from its center, along each axis.
+   *
+   * @param distribution   Distribution of the cities
+   * @param numberOfCities Number of cities
+   * @param seed           Seed of the random generator
+   * @return The generator
+   * @throws IllegalArgumentException if {@code numberOfCities} is lower than 1
+   */
+  public static TspGenerator of(CityDistribution distribution, int numberOfCities, long seed) {
+    if (distribution == null) {
+      throw new NullPointerException("distribution should not be null.");
+    }
+    if (numberOfCities < 1) {
+      throw new IllegalArgumentException("numberOfCities should be at least 1.");
+    }
+    return new TspGenerator(distribution, numberOfCities, seed, DEFAULT_SIZE, 0, DEFAULT_JITTER);
+  }
+
+  /**
+   * @param size Size of the square, coordinates being in {@code [0, size[}
+   * @return New generator with the given size
+   * @throws IllegalArgumentException if {@code size} is lower than 1
+   */
+  public TspGenerator withSize(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("size should be at least 1.");
+    }
+    return new TspGenerator(distribution, numberOfCities, seed, size, clusters, jitter);
+  }
+
+  /**
+   * @param clusters Number of clusters of a {@link CityDistribution#CLUSTERED} distribution
+   * @return New generator with the given number of clusters
+   * @throws IllegalArgumentException if {@code clusters} is lower than 1
+   */
+  public TspGenerator withClusters(int clusters) {
+    if (clusters < 1) {
+      throw new IllegalArgumentException("clusters should be at least 1.");
+    }
+    return new TspGenerator(distribution, numberOfCities, seed, size, clusters, jitter);
+  }
+
+  /**
+   * @param jitter Width of the area around the center of its cell where a city of a
+   *               {@link CityDistribution#JITTERED_GRID} distribution is placed, as a fraction of the size of the cell:
+   *               0 for a regular grid, 1 for anywhere in the cell. A city moves up to {@code jitter / 2} of the size
+   *               of its cell from the center, along each axis
+   * @return New generator with the given jitter
+   * @throws IllegalArgumentException if {@code jitter} isn't in {@code [0, 1]}
+   */
+  public TspGenerator withJitter(double jitter) {
+    if (!(jitter >= 0 && jitter <= 1)) {
+      throw new IllegalArgumentException("jitter should be between 0 and 1.");
+    }
+    return new TspGenerator(distribution, numberOfCities, seed, size, clusters, jitter);
+  }
+
+  /**
+   * Generates an instance, with the default options.
+   *
+   * @return The instance
+   */
+  public TspData generate() {
+    return generate(TspLoadOptions.defaults());
+  }
+
+  /**
+   * Generates an instance.
+   *
+   * @param options Options used to store the distances
+   * @return The instance
+   */
+  public TspData generate(TspLoadOptions options) {
+    int[] xs = new int[numberOfCities];
+    int[] ys = new int[numberOfCities];
+    int[] count = {0};
+    try {
+      generate((x, y) -> {
+        xs[count[0]] = x;
+        ys[count[0]++] = y;
+      });
+    } catch (IOException e) {
+      throw new AssertionError("No I/O while generating in memory", e);
+    }
+    return TspData.create(xs, ys, options);
+  }
+
+  /**
+   * Writes an instance in the text format read by {@link TspData#fromFile}.
+   *
+   * @param file Destination file, replaced if it exists
+   * @throws IOException if the file can't be written
+   */
+  public void writeDatFile(Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+      writer.write(Integer.toString(numberOfCities));
+      writer.write('\n');
+      int[] index = {0};
+      generate((x, y) -> {
+        writer.write(Integer.toString(index[0]++));
+        writer.write(' ');
+        writer.write(Integer.toString(x));
+        writer.write(' ');
+        writer.write(Integer.toString(y));
+        writer.write('\n');
+      });
+    }
+  }
+
+  /**
+   * Writes an instance in the {@link TspBinaryFormat}, without the distances, which are computed when the file is
+   * loaded by {@link TspData#fromMappedFile}.
+   *
+   * @param file Destination file, replaced if it exists
+   * @throws IOException if the file can't be written
+   */
+  public void writeBinaryFile(Path file) throws IOException {
+    try (TspBinaryFormat.Writer writer = new TspBinaryFormat.Writer(file, numberOfCities, false)) {
+      generate((x, y) -> {
+        writer.putInt(x);
+        writer.putInt(y);
+      });
+    }
+  }
+
+  /**
+   * Generates the cities in order.
+   *
+   * @param consumer Consumer receiving the coordinates of each city
+   */
+  private void generate(CityConsumer consumer) throws IOException {
+    SplittableRandom random = new SplittableRandom(seed);
+    switch (distribution) {
+      case UNIFORM -> {
+        for (int i = 0; i < numberOfCities; i++) {
+          consumer.accept(random.nextInt(size), random.nextInt(size));
+        }
+      }
+      case CLUSTERED -> {
+        int k = clusters > 0 ? clusters : Math.max(1, numberOfCities / CITIES_PER_CLUSTER);
+        int[] centerXs = new int[k];
+        int[] centerYs = new int[k];
+        for (int c = 0; c < k; c++) {
+          centerXs[c] = random.nextInt(size);
+          centerYs[c] = random.nextInt(size);
+        }
+        // Clusters get tighter as cities get denser
+        double deviation = size / Math.sqrt(numberOfCities);
+        for (int i = 0; i < numberOfCities; i++) {
+          int c = random.nextInt(k);
+          consumer.accept(clamp(centerXs[c] + deviation * random.nextGaussian()),
+              clamp(centerYs[c] + deviation * random.nextGaussian()));
+        }
+      }
+      case JITTERED_GRID -> {
+        int side = (int) Math.ceil(Math.sqrt(numberOfCities));
+        double cell = (double) size / side;
+        for (int i = 0; i < numberOfCities; i++) {
+          double x = (i % side + 0.5 + jitter * (random.nextDouble() - 0.5)) * cell;
+          double y = (i / side + 0.5 + jitter * (random.nextDouble() - 0.5)) * cell;
+          consumer.accept(clamp(x), clamp(y));
+        }
+      }
+    }
+  }
+
+  /**
+   * @return The coordinate rounded down and moved inside the square
+   */
+  private int clamp(double coordinate) {
+    return (int) Math.max(0, Math.min(size - 1, Math.floor(coordinate)));
+  }
+
+  /**
+   * Writes a generated instance.
+   *
+   * @param args {@code <uniform|clustered|jittered_grid> <number of cities> <seed> <output.dat|output.bin>}
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 4 || !(args[3].endsWith(".dat") || args[3].endsWith(".bin"))) {
+      System.err.println(
+          "Usage: TspGenerator <uniform|clustered|jittered_grid> <number of cities> <seed> <output.dat|output.bin>");
+      System.exit(1);
+    }
+    TspGenerator generator = of(CityDistribution.valueOf(args[0].toUpperCase()), Integer.parseInt(args[1]),
+        Long.decode(args[2]));
+    Path file = Path.of(args[3]);
+    if (args[3].endsWith(".bin")) {
+      generator.writeBinaryFile(file);
+    } else {
+      generator.writeDatFile(file);
+    }
+  }
+}
@@ -0,0 +1,330 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * <p>Streaming reader of symmetric TSP instances in the TSPLIB format.</p>
+ *
+ * <p>Supports the edge weight types {@code EUC_2D}, {@code CEIL_2D}, {@code ATT}, {@code GEO} and {@code EXPLICIT}
+ * (with any of the {@code FULL_MATRIX}, {@code UPPER_ROW}, {@code LOWER_ROW}, {@code UPPER_DIAG_ROW},
+ * {@code LOWER_DIAG_ROW} formats or their column equivalents) and the sections {@code NODE_COORD_SECTION},
+ * {@code EDGE_WEIGHT_SECTION} and {@code DISPLAY_DATA_SECTION}. Cities are numbered from 1 in the file and from 0 in
+ * {@link TspData}.</p>
+ *
+ * <p>Coordinates are kept in double precision for the distance kernel, and rounded to integers for
+ * {@link TspData#getCityCoord}. Explicit instances without display data have their cities laid out on a circle.</p>
+ */
+final class TspLibReader {
+  /** Radius of the circle on which cities are laid out when the instance has no coordinates. */
+  private static final int LAYOUT_RADIUS = 1000;
+
+  private final BufferedReader in;
+  /** Line being tokenized, and the position of its next character. */
+  private String line = "";
+  private int position;
+
+  // Specification read from the header
+  private int dimension = -1;
+  private DistanceMetric metric;
+  private String weightFormat;
+
+  // Content of the sections
+  private double[] xs;
+  private double[] ys;
+  private double[] displayXs;
+  private double[] displayYs;
+  private PackedDistanceMatrix weights;
+  private int maxWeight;
+
+  private TspLibReader(BufferedReader in) {
+    this.in = in;
+  }
+
+  /**
+   * Reads an instance in the TSPLIB format.
+   *
+   * @param filename name of the file to read from.
+   * @param options  options used to load the instance.
+   * @return The instance
+   * @throws FileNotFoundException If file can't be found.
+   * @throws TspParsingException   If file content does not conform to the supported subset of TSPLIB.
+   */
+  static TspData read(String filename, TspLoadOptions options) throws FileNotFoundException {
+    try (BufferedReader in = new BufferedReader(new FileReader(filename))) {
+      return new TspLibReader(in).read(options);
+    } catch (FileNotFoundException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new TspParsingException("Invalid data. Unable to read data.");
+    }
+  }
+
+  private TspData read(TspLoadOptions options) throws IOException {
+    String section = readHeader();
+    if (dimension < 1) {
+      throw new TspParsingException("Invalid TSPLIB data. DIMENSION should be at least 1.");
+    }
+    if (metric == null) {
+      throw new TspParsingException("Invalid TSPLIB data. Missing EDGE_WEIGHT_TYPE.");
+    }
+
+    while (section != null && !section.equals("EOF")) {
+      switch (section) {
+        case "NODE_COORD_SECTION" -> {
+          xs = new double[dimension];
+          ys = new double[dimension];
+          readCoordinates(xs, ys);
+        }
+        case "DISPLAY_DATA_SECTION" -> {
+          displayXs = new double[dimension];
+          displayYs = new double[dimension];
+          readCoordinates(displayXs, displayYs);
+        }
+        case "EDGE_WEIGHT_SECTION" -> readWeights();
+        default -> throw new TspParsingException("Invalid TSPLIB data. Unsupported section " + section + ".");
+      }
+      section = nextToken();
+    }
+
+    DistanceKernel kernel;
+    if (metric == DistanceMetric.EXPLICIT) {
+      if (weights == null) {
+        throw new TspParsingException("Invalid TSPLIB data. Missing EDGE_WEIGHT_SECTION.");
+      }
+      kernel = new DistanceKernel.Explicit(weights, maxWeight);
+    } else {
+      if (xs == null) {
+        throw new TspParsingException("Invalid TSPLIB data. Missing NODE_COORD_SECTION.");
+      }
+      kernel = DistanceKernel.of(metric, xs, ys);
+    }
+
+    int[][] display = displayCoordinates();
+    return TspData.create(display[0], display[1], kernel, options);
+  }
+
+  /**
+   * Reads the specification lines {@code KEY : VALUE}.
+   *
+   * @return The keyword of the first section, null if the file has none
+   */
+  private String readHeader() throws IOException {
+    String line;
+    while ((line = in.readLine()) != null) {
+      line = line.strip();
+      if (line.isEmpty()) {
+        continue;
+      }
+
+      int colon = line.indexOf(':');
+      if (colon < 0) {
+        // First section: its keyword is alone on its line
+        return line;
+      }
+
+      String key = line.substring(0, colon).strip();
+      String value = line.substring(colon + 1).strip();
+      switch (key) {
+        case "TYPE" -> {
+          if (!value.equals("TSP")) {
+            throw new TspParsingException("Invalid TSPLIB data. Only TSP instances are supported, " + value + " read.");
+          }
+        }
+        case "DIMENSION" -> {
+          try {
+            dimension = Integer.parseInt(value);
+          } catch (NumberFormatException e) {
+            throw new TspParsingException("Invalid TSPLIB data. Invalid DIMENSION " + value + ".");
+          }
+        }
+        case "EDGE_WEIGHT_TYPE" -> {
+          try {
+            metric = DistanceMetric.valueOf(value);
+          } catch (IllegalArgumentException e) {
+            throw new TspParsingException("Invalid TSPLIB data. Unsupported EDGE_WEIGHT_TYPE " + value + ".");
+          }
+        }
+        case "EDGE_WEIGHT_FORMAT" -> weightFormat = value;
+        default -> {
+          // NAME, COMMENT, DISPLAY_DATA_TYPE... are not needed
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reads the {@code <number> <x> <y>} lines of a coordinates section.
+   */
+  private void readCoordinates(double[] xs, double[] ys) throws IOException {
+    for (int k = 0; k < dimension; k++) {
+      int city = (int) nextNumber() - 1;
+      if (city < 0 || city >= dimension) {
+        throw new TspParsingException(
+            String.format("Invalid TSPLIB data. City number %d out of range [1, %d].", city + 1, dimension));
+      }
+      xs[city] = nextNumber();
+      ys[city] = nextNumber();
+    }
+  }
+
+  /**
+   * Reads the edge weights in the order given by the format.
+   */
+  private void readWeights() throws IOException {
+    if (weightFormat == null) {
+      throw new TspParsingException("Invalid TSPLIB data. Missing EDGE_WEIGHT_FORMAT.");
+    }
+    weights = new PackedDistanceMatrix(dimension);
+
+    // Column formats of the upper triangle list the same entries as the row formats of the lower triangle
+    switch (weightFormat) {
+      case "FULL_MATRIX" -> {
+        for (int i = 0; i < dimension; i++) {
+          for (int j = 0; j < dimension; j++) {
+            int weight = nextWeight();
+            if (i < j) {
+              weights.set(i, j, weight);
+            }
+          }
+        }
+      }
+      case "UPPER_ROW", "LOWER_COL" -> readTriangle(false, false);
+      case "LOWER_ROW", "UPPER_COL" -> readTriangle(true, false);
+      case "UPPER_DIAG_ROW", "LOWER_DIAG_COL" -> readTriangle(false, true);
+      case "LOWER_DIAG_ROW", "UPPER_DIAG_COL" -> readTriangle(true, true);
+      default -> throw new TspParsingException("Invalid TSPLIB data. Unsupported EDGE_WEIGHT_FORMAT " + weightFormat + ".");
+    }
+  }
+
+  /**
+   * Reads a triangle of the matrix, row by row.
+   *
+   * @param lower    Whether the lower triangle is given, the upper one otherwise
+   * @param diagonal Whether the diagonal is given
+   */
+  private void readTriangle(boolean lower, boolean diagonal) throws IOException {
+    for (int i = 0; i < dimension; i++) {
+      int from = lower ? 0 : (diagonal ? i : i + 1);
+      int to = lower ? (diagonal ? i + 1 : i) : dimension;
+      for (int j = from; j < to; j++) {
+        int weight = nextWeight();
+        if (i != j) {
+          weights.set(Math.min(i, j), Math.max(i, j), weight);
+        }
+      }
+    }
+  }
+
+  /**
+   * Lays out the cities for the display: display data if given, node coordinates otherwise, a circle as last resort.
+   *
+   * @return X coordinates of the cities, then their Y coordinates
+   */
+  private int[][] displayCoordinates() {
+    double[] x = displayXs != null ? displayXs : xs;
+    double[] y = displayYs != null ? displayYs : ys;
+
+    int[] cityXs = new int[dimension];
+    int[] cityYs = new int[dimension];
+    for (int i = 0; i < dimension; i++) {
+      if (x != null) {
+        cityXs[i] = (int) Math.round(x[i]);
+        cityYs[i] = (int) Math.round(y[i]);
+      } else {
+        double angle = 2 * Math.PI * i / dimension;
+        cityXs[i] = (int) Math.round(LAYOUT_RADIUS * Math.cos(angle));
+        cityYs[i] = (int) Math.round(LAYOUT_RADIUS * Math.sin(angle));
+      }
+    }
+    return new int[][]{cityXs, cityYs};
+  }
+
+  private int nextWeight() throws IOException {
+    double weight = nextNumber();
+    if (weight != Math.rint(weight) || weight < 0 || weight > Integer.MAX_VALUE) {
+      throw new TspParsingException("Invalid TSPLIB data. Edge weights should be non negative integers.");
+    }
+    maxWeight = Math.max(maxWeight, (int) weight);
+    return (int) weight;
+  }
+
+  private double nextNumber() throws IOException {
+    if (!skipWhitespace()) {
+      throw new TspParsingException("Invalid TSPLIB data. Unexpected end of file.");
+    }
+    int start = position;
+    int end = tokenEnd();
+    position = end;
+
+    // Integers, most of the numbers of TSPLIB files, are parsed in place without creating a string
+    boolean negative = line.charAt(start) == '-';
+    int digits = negative || line.charAt(start) == '+' ? start + 1 : start;
+    if (digits < end && end - digits <= 18) {
+      long value = 0;
+      int k = digits;
+      while (k < end && line.charAt(k) >= '0' && line.charAt(k) <= '9') {
+        value = 10 * value + (line.charAt(k++) - '0');
+      }
+      if (k == end) {
+        return negative ? -value : value;
+      }
+    }
+
+    String token = line.substring(start, end);
+    try {
+      return Double.parseDouble(token);
+    } catch (NumberFormatException e) {
+      throw new TspParsingException("Invalid TSPLIB data. Number expected, " + token + " read.");
+    }
+  }
+
+  /**
+   * @return The next whitespace-separated token, null at the end of the file
+   */
+  private String nextToken() throws IOException {
+    if (!skipWhitespace()) {
+      return null;
+    }
+    int end = tokenEnd();
+    String token = line.substring(position, end);
+    position = end;
+    return token;
+  }
+
+  /**
+   * Moves to the first character of the next token, reading lines as needed.
+   *
+   * @return False at the end of the file
+   */
+  private boolean skipWhitespace() throws IOException {
+    while (true) {
+      while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+        position++;
+      }
+      if (position < line.length()) {
+        return true;
+      }
+      line = in.readLine();
+      position = 0;
+      if (line == null) {
+        line = "";
+        return false;
+      }
+    }
+  }
+
+  /**
+   * @return The position just after the token starting at the current position
+   */
+  private int tokenEnd() {
+    int end = position;
+    while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+}
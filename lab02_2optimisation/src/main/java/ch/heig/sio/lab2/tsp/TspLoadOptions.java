@@ -0,0 +1,158 @@
+package ch.heig.sio.lab2.tsp;
+
+/**
+ * <p>Immutable options used when loading a {@link TspData}.</p>
+ *
+ * <p>Start from {@link #defaults()} and derive new options with the {@code with*} methods.</p>
+ */
+public final class TspLoadOptions {
+  /** Default memory budget of the distance cache: 64 MiB. */
+  private static final long DEFAULT_DISTANCE_CACHE_BYTES = 64L << 20;
+  private static final TspLoadOptions DEFAULTS =
+      new TspLoadOptions(null, Runtime.getRuntime().availableProcessors(), DEFAULT_DISTANCE_CACHE_BYTES, false, null);
+
+  /** Requested backend, null to let {@link TspData} choose depending on the available memory. */
+  private final DistanceBackend backend;
+  /** Number of threads used to compute the distance matrix. */
+  private final int parallelism;
+  /** Memory budget of the distance cache used when distances are not precomputed, 0 to disable it. */
+  private final long distanceCacheBytes;
+  /** Whether the rows of the distance matrix are ordered along a Hilbert curve. */
+  private final boolean hilbertOrder;
+  /** Directory of the matrices computed by previous loads, null if disabled. */
+  private final MatrixFileCache matrixCache;
+
+  private TspLoadOptions(DistanceBackend backend, int parallelism, long distanceCacheBytes, boolean hilbertOrder,
+                         MatrixFileCache matrixCache) {
+    this.backend = backend;
+    this.parallelism = parallelism;
+    this.distanceCacheBytes = distanceCacheBytes;
+    this.hilbertOrder = hilbertOrder;
+    this.matrixCache = matrixCache;
+  }
+
+  /**
+   * @return Default options: the distance backend is chosen automatically, the distance matrix is computed with
+   * as many threads as available processors and distances that are not precomputed are cached in 64 MiB
+   */
+  public static TspLoadOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * <p>Requests a specific storage for the distances.</p>
+   *
+   * <p>If the requested backend can't be allocated, {@link TspData} falls back to {@link DistanceBackend#COMPUTED}.</p>
+   *
+   * @param backend Requested backend, null to choose automatically
+   * @return New options with the given backend
+   */
+  public TspLoadOptions withBackend(DistanceBackend backend) {
+    return new TspLoadOptions(backend, parallelism, distanceCacheBytes, hilbertOrder, matrixCache);
+  }
+
+  /**
+   * <p>Sets the number of threads used to compute the distance matrix.</p>
+   *
+   * <p>Small instances are always computed by the calling thread.</p>
+   *
+   * @param parallelism Number of threads, 1 to compute the matrix sequentially
+   * @return New options with the given parallelism level
+   * @throws IllegalArgumentException if {@code parallelism} is lower than 1
+   */
+  public TspLoadOptions withParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism should be at least 1.");
+    }
+    return new TspLoadOptions(backend, parallelism, distanceCacheBytes, hilbertOrder, matrixCache);
+  }
+
+  /**
+   * <p>Sets the memory budget of the {@link DistanceCache} used when distances are not precomputed
+   * ({@link DistanceBackend#COMPUTED}).</p>
+   *
+   * @param bytes Maximum number of bytes used by the cache, 0 to disable it
+   * @return New options with the given cache budget
+   * @throws IllegalArgumentException if {@code bytes} is negative
+   */
+  public TspLoadOptions withDistanceCacheBytes(long bytes) {
+    if (bytes < 0) {
+      throw new IllegalArgumentException("distance cache budget should not be negative.");
+    }
+    return new TspLoadOptions(backend, parallelism, bytes, hilbertOrder, matrixCache);
+  }
+
+  /**
+   * <p>Stores the distance matrix with its rows and columns ordered along a Hilbert curve instead of the order of the
+   * file.</p>
+   *
+   * <p>Cities close in the plane then have close rows, so the distances read while improving a tour, between cities
+   * that are neighbours in the tour, are mostly in the same cache lines. City indexes are not changed: the mapping
+   * between cities and rows is applied in {@link TspData#getDistance}, so tours and results are the same as without
+   * it. Loops reading many distances translate their cities once with {@link TspData#toRows} and read the rows with
+   * {@link TspData#getRowDistanceOracle}, so that they don't pay the mapping on each access.</p>
+   *
+   * <p>Only applies to matrices built when loading, including the ones copied from a {@link MatrixFileCache}:
+   * {@link DistanceBackend#COMPUTED} has no matrix, and a {@link DistanceBackend#MAPPED} matrix keeps the order of its
+   * file.</p>
+   *
+   * @param hilbertOrder true to order the matrix along a Hilbert curve
+   * @return New options with the given matrix order
+   */
+  public TspLoadOptions withHilbertOrder(boolean hilbertOrder) {
+    return new TspLoadOptions(backend, parallelism, distanceCacheBytes, hilbertOrder, matrixCache);
+  }
+
+  /**
+   * <p>Stores the distance matrices in a directory, to map them instead of computing them when the same instance is
+   * loaded again. See {@link MatrixFileCache}.</p>
+   *
+   * <p>Only used when the backend is chosen automatically or is {@link DistanceBackend#MAPPED}. A matrix found in the
+   * cache is copied into the heap matrix the automatic selection would use ({@link DistanceBackend#COMPACT}, or
+   * {@link DistanceBackend#PACKED} for long distances), in the order given by {@link #withHilbertOrder}: loading pays
+   * a sequential copy instead of computing the distances, and later reads are as fast as without cache. Only a matrix
+   * too large for the heap is used in place, as a {@link DistanceBackend#MAPPED} matrix of 32-bit distances in the
+   * order of its file.</p>
+   *
+   * @param matrixCache Cache of the matrices, null to disable it
+   * @return New options with the given matrix cache
+   */
+  public TspLoadOptions withMatrixCache(MatrixFileCache matrixCache) {
+    return new TspLoadOptions(backend, parallelism, distanceCacheBytes, hilbertOrder, matrixCache);
+  }
+
+  /**
+   * @return Requested backend, null if it should be chosen automatically
+   */
+  public DistanceBackend backend() {
+    return backend;
+  }
+
+  /**
+   * @return Number of threads used to compute the distance matrix
+   */
+  public int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @return Memory budget of the distance cache, 0 if disabled
+   */
+  public long distanceCacheBytes() {
+    return distanceCacheBytes;
+  }
+
+  /**
+   * @return true if the distance matrix is ordered along a Hilbert curve
+   */
+  public boolean hilbertOrder() {
+    return hilbertOrder;
+  }
+
+  /**
+   * @return Cache of the distance matrices, null if disabled
+   */
+  public MatrixFileCache matrixCache() {
+    return matrixCache;
+  }
+}
@@ -2,6 +2,8 @@ package ch.heig.sio.lab2.tsp;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.stream.IntStream;
 
 /**
@@ -70,9 +72,73 @@ public record TspTour(TspData data, View tour, long length) {
 			return Arrays.stream(tour);
 		}
 
+		/**
+		 * @return Iterator over the cities in the tour, {@link PrimitiveIterator.OfInt#nextInt()} doesn't box them
+		 */
+		public PrimitiveIterator.OfInt intIterator() {
+			return new PrimitiveIterator.OfInt() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < tour.length;
+				}
+
+				@Override
+				public int nextInt() {
+					if (index >= tour.length) {
+						throw new NoSuchElementException();
+					}
+					return tour[index++];
+				}
+			};
+		}
+
+		/**
+		 * Boxes each city, prefer {@link #intIterator()} or {@link #get(int)} in loops.
+		 */
 		@Override
 		public Iterator<Integer> iterator() {
-			return stream().iterator();
+			return intIterator();
+		}
+
+		/**
+		 * Calls the consumer for each edge of the tour, in order, including the one closing the tour from the last city
+		 * to the first. A tour of one city has a single edge from this city to itself.
+		 *
+		 * @param consumer Consumer receiving the cities of each edge
+		 */
+		public void forEachEdge(EdgeConsumer consumer) {
+			for (int i = 0; i < tour.length - 1; i++) {
+				consumer.accept(tour[i], tour[i + 1]);
+			}
+			if (tour.length > 0) {
+				consumer.accept(tour[tour.length - 1], tour[0]);
+			}
+		}
+
+		/**
+		 * @return Iterator over the edges of the tour, in the same order as {@link #forEachEdge}, creating each
+		 * {@link Edge} only when it is requested
+		 */
+		public Iterator<Edge> edgeIterator() {
+			return new Iterator<>() {
+				private int index = 0;
+
+				@Override
+				public boolean hasNext() {
+					return index < tour.length;
+				}
+
+				@Override
+				public Edge next() {
+					if (index >= tour.length) {
+						throw new NoSuchElementException();
+					}
+					int u = tour[index++];
+					return new Edge(u, tour[index == tour.length ? 0 : index]);
+				}
+			};
 		}
 
 		@Override
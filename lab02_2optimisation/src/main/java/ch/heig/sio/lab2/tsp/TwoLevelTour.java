@@ -0,0 +1,319 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>{@link MutableTour} stored as a two-level doubly-linked list, reversing paths in O(sqrt(n)) amortized time
+ * instead of O(n).</p>
+ *
+ * <p>The tour is cut in segments of about {@code sqrt(n)} consecutive cities, themselves linked in the order of the
+ * tour. Cities are linked and ranked inside their segment, and each segment has a reversal bit telling whether it is
+ * traversed along its links or against them, and the position of its first city in the tour. Positions, successors,
+ * predecessors and {@link #between} are then found in constant time.</p>
+ *
+ * <p>A reversal first splits the segments at both ends of the path, so that the path is made of whole segments, then
+ * reverses the order of these segments and flips their bits. Splitting only relabels the cities of the smallest part
+ * of a segment, so segments never grow. Each reversal adds at most two segments: the segments are rebuilt, in O(n),
+ * once their number has doubled, that is after about {@code sqrt(n) / 2} reversals.</p>
+ */
+public final class TwoLevelTour implements MutableTour {
+  /**
+   * Number of cities from which {@link MutableTour#of} uses this representation: below, the smaller constant of
+   * {@link ArrayTour} wins.
+   */
+  static final int MIN_CITIES = 10_000;
+  /** Segments of a tour rebuilt with m segments may grow to this many times m before the next rebuild. */
+  private static final int CAPACITY_FACTOR = 2;
+
+  private final int n;
+
+  // Cities
+  /** Segment of each city. */
+  private final int[] parent;
+  /** Rank of each city in its segment, consecutive from the first to the last city of the segment. */
+  private final int[] rank;
+  /** Next city in the same segment, along the links. Meaningless for the last city of a segment. */
+  private final int[] link;
+  /** Previous city in the same segment, along the links. Meaningless for the first city of a segment. */
+  private final int[] backLink;
+
+  // Segments
+  /** First city of each segment along the links, the last one in tour order if the segment is reversed. */
+  private int[] first;
+  /** Last city of each segment along the links. */
+  private int[] last;
+  private int[] segmentSize;
+  private boolean[] reversed;
+  /** Position in the tour of the first city of each segment, in tour order. */
+  private int[] start;
+  /** Next segment in tour order. */
+  private int[] nextSegment;
+  /** Previous segment in tour order. */
+  private int[] prevSegment;
+  private int segmentCount;
+  /** Segments of the path being reversed. */
+  private int[] run;
+
+  /**
+   * Creates a tour visiting cities in the given order.
+   *
+   * @param tour Cities in the order of the tour
+   * @throws IllegalArgumentException if the cities are not a permutation of {@code [0, tour.length[}
+   */
+  public TwoLevelTour(int[] tour) {
+    n = tour.length;
+    parent = new int[n];
+    rank = new int[n];
+    link = new int[n];
+    backLink = new int[n];
+
+    boolean[] seen = new boolean[n];
+    for (int p = 0; p < n; p++) {
+      int city = tour[p];
+      if (city < 0 || city >= n || seen[city]) {
+        throw new IllegalArgumentException("The tour is not a permutation of its cities, at position " + p + ".");
+      }
+      seen[city] = true;
+    }
+    build(tour);
+  }
+
+  /**
+   * Cuts the tour in segments of about {@code sqrt(n)} cities, none reversed.
+   *
+   * @param tour Cities in the order of the tour
+   */
+  private void build(int[] tour) {
+    int size = Math.max(1, (int) Math.sqrt(n));
+    int count = (n + size - 1) / size;
+    int capacity = CAPACITY_FACTOR * count + 2;
+    if (first == null || first.length < capacity) {
+      first = new int[capacity];
+      last = new int[capacity];
+      segmentSize = new int[capacity];
+      reversed = new boolean[capacity];
+      start = new int[capacity];
+      nextSegment = new int[capacity];
+      prevSegment = new int[capacity];
+      run = new int[capacity];
+    }
+
+    for (int s = 0; s < count; s++) {
+      int from = s * size;
+      int to = Math.min(n, from + size);
+      for (int p = from; p < to; p++) {
+        int city = tour[p];
+        parent[city] = s;
+        rank[city] = p;
+        link[city] = p + 1 < to ? tour[p + 1] : -1;
+        backLink[city] = p > from ? tour[p - 1] : -1;
+      }
+      first[s] = tour[from];
+      last[s] = tour[to - 1];
+      segmentSize[s] = to - from;
+      reversed[s] = false;
+      start[s] = from;
+      nextSegment[s] = s + 1 == count ? 0 : s + 1;
+      prevSegment[s] = s == 0 ? count - 1 : s - 1;
+    }
+    segmentCount = count;
+  }
+
+  @Override
+  public int size() {
+    return n;
+  }
+
+  @Override
+  public int position(int city) {
+    Objects.checkIndex(city, n);
+    int s = parent[city];
+    int offset = reversed[s] ? rank[last[s]] - rank[city] : rank[city] - rank[first[s]];
+    int p = start[s] + offset;
+    return p >= n ? p - n : p;
+  }
+
+  @Override
+  public int next(int city) {
+    Objects.checkIndex(city, n);
+    int s = parent[city];
+    if (city == tailOf(s)) {
+      return headOf(nextSegment[s]);
+    }
+    return reversed[s] ? backLink[city] : link[city];
+  }
+
+  @Override
+  public int prev(int city) {
+    Objects.checkIndex(city, n);
+    int s = parent[city];
+    if (city == headOf(s)) {
+      return tailOf(prevSegment[s]);
+    }
+    return reversed[s] ? link[city] : backLink[city];
+  }
+
+  @Override
+  public boolean between(int a, int b, int c) {
+    int pa = position(a);
+    int pb = position(b);
+    int pc = position(c);
+    if (pa <= pc) {
+      return pa <= pb && pb <= pc;
+    }
+    return pb >= pa || pb <= pc;
+  }
+
+  /**
+   * @return First city of the segment in tour order
+   */
+  private int headOf(int s) {
+    return reversed[s] ? last[s] : first[s];
+  }
+
+  /**
+   * @return Last city of the segment in tour order
+   */
+  private int tailOf(int s) {
+    return reversed[s] ? first[s] : last[s];
+  }
+
+  @Override
+  public void reversePath(int a, int b) {
+    int pa = position(a);
+    int pb = position(b);
+    int length = pb >= pa ? pb - pa + 1 : pb - pa + 1 + n;
+    if (2 * length > n) {
+      // Reverse the complement, from next(b) to prev(a)
+      int from = next(b);
+      b = prev(a);
+      a = from;
+      length = n - length;
+    }
+    if (length < 2) {
+      return;
+    }
+
+    if (segmentCount + 2 > first.length) {
+      build(toArray());
+    }
+    splitBefore(a);
+    int s = parent[b];
+    if (b != tailOf(s)) {
+      splitBefore(reversed[s] ? backLink[b] : link[b]);
+    }
+    reverseSegments(parent[a], parent[b]);
+  }
+
+  /**
+   * Splits the segment of a city, so that it becomes the first city of its segment in tour order.
+   *
+   * @param city City index
+   */
+  private void splitBefore(int city) {
+    int s = parent[city];
+    if (city == headOf(s)) {
+      return;
+    }
+    // Cut between two cities consecutive along the links: the lower one ends the first part
+    int lower = reversed[s] ? city : backLink[city];
+    int upper = link[lower];
+    int lowerSize = rank[lower] - rank[first[s]] + 1;
+
+    // The smallest part moves to a new segment
+    int t = segmentCount++;
+    reversed[t] = reversed[s];
+    boolean lowerMoves = 2 * lowerSize <= segmentSize[s];
+    if (lowerMoves) {
+      first[t] = first[s];
+      last[t] = lower;
+      first[s] = upper;
+      segmentSize[t] = lowerSize;
+    } else {
+      first[t] = upper;
+      last[t] = last[s];
+      last[s] = lower;
+      segmentSize[t] = segmentSize[s] - lowerSize;
+    }
+    segmentSize[s] -= segmentSize[t];
+    for (int c = first[t]; ; c = link[c]) {
+      parent[c] = t;
+      if (c == last[t]) {
+        break;
+      }
+    }
+
+    // In tour order, the lower part comes first unless the segment is reversed
+    boolean newFirst = lowerMoves != reversed[s];
+    int head = newFirst ? t : s;
+    int tail = newFirst ? s : t;
+    int before = prevSegment[s];
+    int after = nextSegment[s];
+    linkSegments(before == s ? tail : before, head);
+    linkSegments(head, tail);
+    linkSegments(tail, after == s ? head : after);
+    int p = start[s];
+    start[head] = p;
+    start[tail] = p + segmentSize[head] >= n ? p + segmentSize[head] - n : p + segmentSize[head];
+  }
+
+  private void linkSegments(int s, int t) {
+    nextSegment[s] = t;
+    prevSegment[t] = s;
+  }
+
+  /**
+   * Reverses the path made of whole segments from {@code from} to {@code to} in tour order.
+   *
+   * @param from First segment of the path
+   * @param to   Last segment of the path
+   */
+  private void reverseSegments(int from, int to) {
+    int count = 0;
+    for (int s = from; ; s = nextSegment[s]) {
+      run[count++] = s;
+      if (s == to) {
+        break;
+      }
+    }
+
+    int before = prevSegment[from];
+    int after = nextSegment[to];
+    int p = start[from];
+    int previous = before;
+    for (int k = count - 1; k >= 0; k--) {
+      int s = run[k];
+      reversed[s] = !reversed[s];
+      start[s] = p;
+      p += segmentSize[s];
+      if (p >= n) {
+        p -= n;
+      }
+      linkSegments(previous, s);
+      previous = s;
+    }
+    linkSegments(previous, after);
+  }
+
+  @Override
+  public int[] toArray() {
+    int[] tour = new int[n];
+    if (n == 0) {
+      return tour;
+    }
+    int city = 0;
+    int p = position(city);
+    for (int k = 0; k < n; k++) {
+      tour[p] = city;
+      city = next(city);
+      p = p + 1 == n ? 0 : p + 1;
+    }
+    return tour;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(toArray());
+  }
+}
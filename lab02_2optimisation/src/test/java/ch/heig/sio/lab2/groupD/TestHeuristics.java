@@ -0,0 +1,45 @@
+package ch.heig.sio.lab2.groupD;
+
+import ch.heig.sio.lab2.groupD.heuristics.ClosestFirstInsert;
+import ch.heig.sio.lab2.groupD.heuristics.FarthestFirstInsert;
+import ch.heig.sio.lab2.tsp.TspConstructiveHeuristic;
+import ch.heig.sio.lab2.tsp.TspData;
+import ch.heig.sio.lab2.tsp.TspTour;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the heuristics.
+ * The tours are pinned to the ones of the first implementation, so that a change in the order of the insertions, like
+ * the tie-break between cities at the same distance, can't silently change the results of the analysis.
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class TestHeuristics {
+
+    /**
+     * Check the length of the tour and the hash of its cities in order.
+     */
+    private static void assertTour(TspConstructiveHeuristic heuristic, String file, int startCity, long length,
+                                   int hash) throws FileNotFoundException {
+        TspTour tour = heuristic.computeTour(TspData.fromFile(file), startCity);
+        assertEquals(length, tour.length());
+        assertEquals(hash, Arrays.hashCode(tour.tour().copy()));
+    }
+
+    @Test
+    public void testClosest() throws FileNotFoundException {
+        assertTour(new ClosestFirstInsert(), "data/pcb442.dat", 1, 61081, 846032512);
+        assertTour(new ClosestFirstInsert(), "data/pcb1173.dat", 3, 71685, -1314517805);
+    }
+
+    @Test
+    public void testFarthest() throws FileNotFoundException {
+        assertTour(new FarthestFirstInsert(), "data/pcb442.dat", 1, 57631, -1524759074);
+        assertTour(new FarthestFirstInsert(), "data/pcb1173.dat", 3, 66162, 1300782655);
+    }
+}
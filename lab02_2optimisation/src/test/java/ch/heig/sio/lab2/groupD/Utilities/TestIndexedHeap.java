@@ -0,0 +1,166 @@
+package ch.heig.sio.lab2.groupD.Utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the IndexedHeap
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class TestIndexedHeap {
+
+    /**
+     * @return The city that must leave the heap first according to the keys, the lowest index on ties
+     */
+    private static int expectedFirst(int[] keys, boolean[] present, IndexedHeap.Order order) {
+        int first = -1;
+        for (int city = 0; city < keys.length; ++city) {
+            if (present[city] && (first == -1 || order.isBefore(keys[city], keys[first]))) {
+                first = city;
+            }
+        }
+        return first;
+    }
+
+    @Test
+    public void testPoll() {
+        IndexedHeap heap = new IndexedHeap(6);
+        assertTrue(heap.isEmpty());
+        heap.put(3, 7);
+        heap.put(0, 2);
+        heap.put(5, 9);
+        heap.put(1, 2);
+        heap.put(4, -1);
+        assertEquals(5, heap.size());
+        assertFalse(heap.contains(2));
+
+        // Cities with the same key leave by index
+        int[] expected = {4, 0, 1, 3, 5};
+        for (int city : expected) {
+            assertEquals(city, heap.peek());
+            assertEquals(city, heap.poll());
+            assertFalse(heap.contains(city));
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testPut() {
+        IndexedHeap heap = new IndexedHeap(4);
+        heap.put(0, 5);
+        heap.put(1, 3);
+        heap.put(2, 4);
+        assertEquals(1, heap.peek());
+        // Changing the key of a city in the heap, in both directions
+        heap.put(1, 10);
+        assertEquals(3, heap.size());
+        assertEquals(10, heap.getKey(1));
+        assertEquals(2, heap.peek());
+        heap.put(0, 1);
+        assertEquals(0, heap.peek());
+        assertEquals(0, heap.poll());
+        assertEquals(2, heap.poll());
+        assertEquals(1, heap.poll());
+    }
+
+    @Test
+    public void testImproveKey() {
+        IndexedHeap heap = new IndexedHeap(3);
+        heap.put(0, 5);
+        heap.put(1, 8);
+        heap.put(2, 6);
+        assertFalse(heap.improveKey(1, 9));
+        assertFalse(heap.improveKey(1, 8));
+        assertEquals(8, heap.getKey(1));
+        assertTrue(heap.improveKey(1, 4));
+        assertEquals(4, heap.getKey(1));
+        assertEquals(1, heap.peek());
+
+        IndexedHeap maxHeap = new IndexedHeap(3, IndexedHeap.Order.MAX);
+        maxHeap.put(0, 5);
+        maxHeap.put(1, 8);
+        maxHeap.put(2, 6);
+        assertEquals(1, maxHeap.peek());
+        assertFalse(maxHeap.improveKey(2, 1));
+        assertTrue(maxHeap.improveKey(2, 10));
+        assertEquals(2, maxHeap.peek());
+    }
+
+    @Test
+    public void testRemove() {
+        IndexedHeap heap = new IndexedHeap(5);
+        for (int city = 0; city < 5; ++city) {
+            heap.put(city, 10 - city);
+        }
+        heap.remove(4);
+        heap.remove(1);
+        heap.remove(0);
+        assertEquals(2, heap.size());
+        int[] cities = new int[5];
+        assertEquals(2, heap.copyCities(cities));
+        int[] remaining = Arrays.copyOf(cities, 2);
+        Arrays.sort(remaining);
+        assertEquals(2, remaining[0]);
+        assertEquals(3, remaining[1]);
+        assertEquals(3, heap.poll());
+        assertEquals(2, heap.poll());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random rnd = new Random(0x4EA9);
+        int n = 50;
+        for (IndexedHeap.Order order : new IndexedHeap.Order[]{IndexedHeap.Order.MIN, IndexedHeap.Order.MAX}) {
+            IndexedHeap heap = new IndexedHeap(n, order);
+            int[] keys = new int[n];
+            boolean[] present = new boolean[n];
+            int size = 0;
+            for (int step = 0; step < 5000; ++step) {
+                int city = rnd.nextInt(n);
+                int key = rnd.nextInt(20); // Few keys, to have many ties
+                switch (rnd.nextInt(4)) {
+                    case 0 -> {
+                        size += present[city] ? 0 : 1;
+                        heap.put(city, key);
+                        keys[city] = key;
+                        present[city] = true;
+                    }
+                    case 1 -> {
+                        if (present[city]) {
+                            boolean improved = order.isBefore(key, keys[city]);
+                            assertEquals(improved, heap.improveKey(city, key));
+                            keys[city] = improved ? key : keys[city];
+                        }
+                    }
+                    case 2 -> {
+                        if (present[city]) {
+                            heap.remove(city);
+                            present[city] = false;
+                            --size;
+                        }
+                    }
+                    default -> {
+                        if (size > 0) {
+                            int expected = expectedFirst(keys, present, order);
+                            assertEquals(expected, heap.poll());
+                            present[expected] = false;
+                            --size;
+                        }
+                    }
+                }
+                assertEquals(size, heap.size());
+                assertEquals(present[city], heap.contains(city));
+                if (size > 0) {
+                    assertEquals(expectedFirst(keys, present, order), heap.peek());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ch.heig.sio.lab2.groupD.Utilities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the IntLinkedCycle
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class TestIntLinkedCycle {
+
+    /**
+     * Check that the list is the given cycle, in both directions.
+     */
+    private static void assertCycle(int[] expected, IntLinkedCycle cycle) {
+        int n = expected.length;
+        assertEquals(n, cycle.size());
+        assertEquals(expected[0], cycle.getFirst());
+        assertArrayEquals(expected, cycle.toArray());
+        for (int i = 0; i < n; ++i) {
+            assertTrue(cycle.contains(expected[i]));
+            assertEquals(expected[(i + 1) % n], cycle.getNext(expected[i]));
+            assertEquals(expected[(i + n - 1) % n], cycle.getPrevious(expected[i]));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        IntLinkedCycle cycle = new IntLinkedCycle(3);
+        assertTrue(cycle.isEmpty());
+        assertEquals(0, cycle.size());
+        assertEquals(-1, cycle.getFirst());
+        assertArrayEquals(new int[0], cycle.toArray());
+        assertFalse(cycle.contains(0));
+        assertThrows(IllegalStateException.class, () -> cycle.insertAfter(0, 1));
+        assertTrue(cycle.isEmpty());
+    }
+
+    @Test
+    public void testOneCity() {
+        IntLinkedCycle cycle = new IntLinkedCycle(3);
+        cycle.add(2);
+        assertFalse(cycle.isEmpty());
+        assertCycle(new int[]{2}, cycle);
+        assertFalse(cycle.contains(0));
+        assertFalse(cycle.contains(1));
+    }
+
+    @Test
+    public void testAdd() {
+        IntLinkedCycle cycle = new IntLinkedCycle(5);
+        cycle.add(3);
+        cycle.add(0);
+        assertCycle(new int[]{3, 0}, cycle);
+        cycle.add(4);
+        cycle.add(1);
+        assertCycle(new int[]{3, 0, 4, 1}, cycle);
+        assertFalse(cycle.contains(2));
+    }
+
+    @Test
+    public void testInsertAfter() {
+        IntLinkedCycle cycle = new IntLinkedCycle(6);
+        cycle.add(0);
+        cycle.insertAfter(0, 5);
+        assertCycle(new int[]{0, 5}, cycle);
+        // After the last city, the new city becomes the last one
+        cycle.insertAfter(5, 2);
+        assertCycle(new int[]{0, 5, 2}, cycle);
+        // After the first city
+        cycle.insertAfter(0, 1);
+        assertCycle(new int[]{0, 1, 5, 2}, cycle);
+        // In the middle
+        cycle.insertAfter(5, 3);
+        assertCycle(new int[]{0, 1, 5, 3, 2}, cycle);
+        // Adding after insertions still appends before the first city
+        cycle.add(4);
+        assertCycle(new int[]{0, 1, 5, 3, 2, 4}, cycle);
+    }
+}
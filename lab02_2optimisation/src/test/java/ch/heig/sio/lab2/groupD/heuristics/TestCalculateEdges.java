@@ -0,0 +1,61 @@
+package ch.heig.sio.lab2.groupD.heuristics;
+
+import ch.heig.sio.lab2.tsp.Edge;
+import ch.heig.sio.lab2.tsp.TspData;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the edges given to the observer by the GenericConstructiveHeuristic
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class TestCalculateEdges {
+
+    /**
+     * Check that the edges link the cities of the tour in order, the last one back to the first.
+     */
+    private static void assertEdges(int[] cities, Iterator<Edge> edges) {
+        for (int i = 0; i < cities.length; ++i) {
+            assertTrue(edges.hasNext());
+            assertEquals(new Edge(cities[i], cities[(i + 1) % cities.length]), edges.next());
+        }
+        assertFalse(edges.hasNext());
+        assertThrows(NoSuchElementException.class, edges::next);
+    }
+
+    @Test
+    public void testOneCity() {
+        TspData data = TspData.fromArray(new TspData.City[]{new TspData.City(1, 2)});
+        ClosestFirstInsert heuristic = new ClosestFirstInsert();
+        heuristic.computeTour(data, 0);
+        assertEdges(heuristic.cycleCities.toArray(), heuristic.calculateEdges());
+    }
+
+    @Test
+    public void testEveryStep() throws FileNotFoundException {
+        TspData data = TspData.fromFile("data/pcb442.dat");
+        GenericConstructiveHeuristic[] heuristics = {
+                new ClosestFirstInsert(), new FarthestFirstInsert(), new CheapestInsert()
+        };
+        for (GenericConstructiveHeuristic heuristic : heuristics) {
+            int[] updates = {0};
+            heuristic.computeTour(data, 7, edges -> {
+                ++updates[0];
+                int[] cities = heuristic.cycleCities.toArray();
+                assertEquals(updates[0] + 1, cities.length);
+                assertEdges(cities, edges);
+            });
+            assertEquals(data.getNumberOfCities() - 1, updates[0]);
+            assertEdges(heuristic.cycleCities.toArray(), heuristic.calculateEdges());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package ch.heig.sio.lab2.groupD.heuristics;
+
+import ch.heig.sio.lab2.groupD.Utilities.IntLinkedCycle;
+import ch.heig.sio.lab2.tsp.TspData;
+import ch.heig.sio.lab2.tsp.TspTour;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the CheapestInsertionEngine and the CheapestInsert heuristic
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class TestCheapestInsertionEngine {
+
+    /**
+     * @return The cost of the cheapest insertion of a city in the tour, found by evaluating every edge
+     */
+    private static int bruteForceCost(TspData data, IntLinkedCycle tour, int city) {
+        int best = Integer.MAX_VALUE;
+        int current = tour.getFirst();
+        for (int k = 0; k < tour.size(); ++k) {
+            int next = tour.getNext(current);
+            best = Math.min(best, data.getDistance(current, city) + data.getDistance(city, next)
+                    - data.getDistance(current, next));
+            current = next;
+        }
+        return best;
+    }
+
+    private static long length(TspData data, IntLinkedCycle tour) {
+        long length = 0;
+        int current = tour.getFirst();
+        for (int k = 0; k < tour.size(); ++k) {
+            int next = tour.getNext(current);
+            length += data.getDistance(current, next);
+            current = next;
+        }
+        return length;
+    }
+
+    /**
+     * Insert every city with the engine and check each step against a search of the cheapest (city, edge) over the
+     * whole tour.
+     * @return The length of the tour built
+     */
+    private static long checkEngine(TspData data, int startCity) {
+        int n = data.getNumberOfCities();
+        IntLinkedCycle tour = new IntLinkedCycle(n);
+        tour.add(startCity);
+        CheapestInsertionEngine engine = new CheapestInsertionEngine(data, tour);
+        for (int i = 0; i < n; ++i) {
+            if (i != startCity) {
+                engine.add(i);
+            }
+        }
+
+        long length = 0;
+        while (!engine.isEmpty()) {
+            int cheapestCost = Integer.MAX_VALUE;
+            for (int city = 0; city < n; ++city) {
+                if (!tour.contains(city)) {
+                    int cost = bruteForceCost(data, tour, city);
+                    assertEquals(cost, engine.getCost(city), "Wrong cost of city " + city);
+                    cheapestCost = Math.min(cheapestCost, cost);
+                }
+            }
+
+            int city = engine.getCheapestCity();
+            assertFalse(tour.contains(city));
+            assertEquals(cheapestCost, engine.getCost(city));
+            int cost = engine.insert(city);
+            assertEquals(cheapestCost, cost);
+            assertTrue(tour.contains(city));
+            length += cost;
+            assertEquals(length, length(data, tour));
+        }
+        assertEquals(n, tour.size());
+        return length;
+    }
+
+    private static TspData instance(int... coordinates) {
+        TspData.City[] cities = new TspData.City[coordinates.length / 2];
+        for (int i = 0; i < cities.length; ++i) {
+            cities[i] = new TspData.City(coordinates[2 * i], coordinates[2 * i + 1]);
+        }
+        return TspData.fromArray(cities);
+    }
+
+    @Test
+    public void testOneCity() {
+        TspData data = instance(3, 4);
+        assertEquals(0, checkEngine(data, 0));
+        TspTour tour = new CheapestInsert().computeTour(data, 0);
+        assertEquals(0, tour.length());
+        assertEquals(1, tour.tour().size());
+    }
+
+    @Test
+    public void testTwoCities() {
+        TspData data = instance(0, 0, 3, 4);
+        for (int start = 0; start < 2; ++start) {
+            assertEquals(10, checkEngine(data, start));
+            assertEquals(10, new CheapestInsert().computeTour(data, start).length());
+        }
+    }
+
+    @Test
+    public void testThreeCities() {
+        TspData data = instance(0, 0, 3, 4, 6, 0);
+        for (int start = 0; start < 3; ++start) {
+            assertEquals(16, checkEngine(data, start));
+            assertEquals(16, new CheapestInsert().computeTour(data, start).length());
+        }
+    }
+
+    @Test
+    public void testTies() {
+        // Cities on a small grid, with many insertions of the same cost
+        Random rnd = new Random(0x5EED);
+        int[] coordinates = new int[2 * 60];
+        for (int i = 0; i < coordinates.length; ++i) {
+            coordinates[i] = 10 * rnd.nextInt(5);
+        }
+        TspData data = instance(coordinates);
+        for (int start : new int[]{0, 17, 59}) {
+            checkEngine(data, start);
+        }
+    }
+
+    @Test
+    public void testInstance() throws FileNotFoundException {
+        TspData data = TspData.fromFile("data/pcb442.dat");
+        long length = checkEngine(data, 5);
+        TspTour tour = new CheapestInsert().computeTour(data, 5);
+        assertEquals(length, tour.length());
+        assertEquals(data.getNumberOfCities(), tour.tour().size());
+    }
+}
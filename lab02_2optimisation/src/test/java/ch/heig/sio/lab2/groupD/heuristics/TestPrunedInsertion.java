@@ -0,0 +1,89 @@
+package ch.heig.sio.lab2.groupD.heuristics;
+
+import ch.heig.sio.lab2.display.TspHeuristicObserver;
+import ch.heig.sio.lab2.tsp.TspData;
+import ch.heig.sio.lab2.tsp.TspTour;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the pruned insertion of the GenericConstructiveHeuristic
+ * @author Edwin Häffner
+ * @author Arthur Junod
+ */
+public class TestPrunedInsertion {
+
+    /**
+     * Insert the cities in a random order, checking that the cost of each insertion is the one of the best edge of the
+     * whole tour.
+     */
+    private static class CheckedInsert extends GenericConstructiveHeuristic implements PrunedInsertion {
+        private final Random rnd = new Random(0xC0575);
+
+        @Override
+        public void setPrunedInsertion(int neighbours, boolean exactFallback) {
+            pruneInsertion(neighbours, exactFallback);
+        }
+
+        @Override
+        public void insertLogic(TspData data, int startCityIndex, TspHeuristicObserver observer) {
+            int n = data.getNumberOfCities();
+            int[] order = new int[n];
+            for (int i = 0; i < n; ++i) {
+                order[i] = i;
+            }
+            for (int i = n - 1; i > 0; --i) {
+                int j = rnd.nextInt(i + 1);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+
+            for (int city : order) {
+                if (city == startCityIndex) {
+                    continue;
+                }
+                int expected = fullScanCost(data, city);
+                int before = distance;
+                insertCity(city, data);
+                assertEquals(expected, distance - before, "Wrong cost of city " + city);
+            }
+        }
+
+        private int fullScanCost(TspData data, int city) {
+            int best = Integer.MAX_VALUE;
+            int current = cycleCities.getFirst();
+            for (int k = 0; k < cycleCities.size(); ++k) {
+                int next = cycleCities.getNext(current);
+                best = Math.min(best, data.getDistance(current, city) + data.getDistance(city, next)
+                        - data.getDistance(current, next));
+                current = next;
+            }
+            return best;
+        }
+    }
+
+    @Test
+    public void testExactFallback() throws FileNotFoundException {
+        for (String file : new String[]{"pcb442", "att532", "u574", "pcb1173"}) {
+            TspData data = TspData.fromFile("data/" + file + ".dat");
+            for (int neighbours : new int[]{1, 3, 8}) {
+                CheckedInsert heuristic = new CheckedInsert();
+                heuristic.setPrunedInsertion(neighbours, true);
+                TspTour tour = heuristic.computeTour(data, 0);
+                assertEquals(data.getNumberOfCities(), tour.tour().size());
+            }
+        }
+    }
+
+    @Test
+    public void testNegativeNeighbours() {
+        assertThrows(IllegalArgumentException.class, () -> new ClosestFirstInsert().setPrunedInsertion(-1, true));
+        assertThrows(IllegalArgumentException.class, () -> new RandomInsert().setPrunedInsertion(-1, false));
+    }
+}
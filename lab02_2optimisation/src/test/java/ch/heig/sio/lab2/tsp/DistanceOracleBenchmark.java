@@ -0,0 +1,80 @@
+package ch.heig.sio.lab2.tsp;
+
+import java.io.FileNotFoundException;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Compares the sums of the distances of a 2-opt neighbourhood read with {@link TspData#getDistance} and with a
+ * {@link DistanceOracle}, for each backend.</p>
+ *
+ * <p>Not a test: run it from the test classpath with
+ * {@code java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes
+ * ch.heig.sio.lab2.tsp.DistanceOracleBenchmark [instance.dat]}. Each measure is preceded by warmup rounds so that
+ * both paths are compiled by the JIT, and the best of the measured rounds is reported.</p>
+ */
+public final class DistanceOracleBenchmark {
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int MEASURED_ROUNDS = 10;
+
+  private DistanceOracleBenchmark() {
+  }
+
+  public static void main(String[] args) throws FileNotFoundException {
+    String file = args.length > 0 ? args[0] : "data/u1817.dat";
+    System.out.printf("%-9s %14s %14s%n", "Backend", "getDistance", "oracle");
+    for (DistanceBackend backend : DistanceBackend.values()) {
+      if (backend == DistanceBackend.MAPPED) {
+        continue;
+      }
+      TspData data = TspData.fromFile(file, TspLoadOptions.defaults().withBackend(backend));
+      int[] tour = new RandomTour(0x134DAE9).computeTour(data, 0).tour().copy();
+      long checked = measure(() -> checked(data, tour));
+      long unchecked = measure(() -> unchecked(data.getDistanceOracle(), tour));
+      System.out.printf("%-9s %11.2f ms %11.2f ms%n", data.getDistanceBackend(), checked / 1e6, unchecked / 1e6);
+    }
+  }
+
+  /**
+   * @return Best duration of the measured rounds, in nanoseconds
+   */
+  private static long measure(LongSupplier round) {
+    long sink = 0;
+    for (int r = 0; r < WARMUP_ROUNDS; r++) {
+      sink += round.getAsLong();
+    }
+    long best = Long.MAX_VALUE;
+    for (int r = 0; r < MEASURED_ROUNDS; r++) {
+      long start = System.nanoTime();
+      sink += round.getAsLong();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    if (sink == 42) {
+      System.out.println();
+    }
+    return best;
+  }
+
+  private static long checked(TspData data, int[] tour) {
+    int n = tour.length;
+    long sum = 0;
+    for (int i = 0; i < n - 2; i++) {
+      for (int j = i + 2; j < n; j++) {
+        int j1 = j + 1 == n ? 0 : j + 1;
+        sum += data.getDistance(tour[i], tour[j]) + data.getDistance(tour[i + 1], tour[j1]);
+      }
+    }
+    return sum;
+  }
+
+  private static long unchecked(DistanceOracle oracle, int[] tour) {
+    int n = tour.length;
+    long sum = 0;
+    for (int i = 0; i < n - 2; i++) {
+      for (int j = i + 2; j < n; j++) {
+        int j1 = j + 1 == n ? 0 : j + 1;
+        sum += oracle.distance(tour[i], tour[j]) + oracle.distance(tour[i + 1], tour[j1]);
+      }
+    }
+    return sum;
+  }
+}
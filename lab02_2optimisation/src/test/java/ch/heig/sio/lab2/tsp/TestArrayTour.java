@@ -0,0 +1,88 @@
+package ch.heig.sio.lab2.tsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link ArrayTour}.
+ */
+public class TestArrayTour {
+
+  /**
+   * Asserts that the tour is the cycle of the reference, in any direction.
+   */
+  private static void assertSameCycle(int[] reference, ArrayTour tour) {
+    int n = reference.length;
+    boolean forward = tour.next(reference[0]) == reference[1 % n];
+    for (int p = 0; p < n; p++) {
+      int city = reference[p];
+      int next = reference[(p + 1) % n];
+      int prev = reference[(p + n - 1) % n];
+      assertEquals(city, tour.city(tour.position(city)));
+      assertEquals(forward ? next : prev, tour.next(city), "Wrong successor of " + city);
+      assertEquals(forward ? prev : next, tour.prev(city), "Wrong predecessor of " + city);
+    }
+  }
+
+  @Test
+  public void testReverse() {
+    Random rnd = new Random(0x134DAE9);
+    for (int n : new int[]{1, 2, 3, 10, 101}) {
+      int[] cities = IntStream.range(0, n).toArray();
+      for (int k = n - 1; k > 0; k--) {
+        int r = rnd.nextInt(k + 1);
+        int t = cities[k];
+        cities[k] = cities[r];
+        cities[r] = t;
+      }
+      ArrayTour tour = new ArrayTour(cities);
+      for (int move = 0; move < 500; move++) {
+        int i = rnd.nextInt(n);
+        int j = rnd.nextInt(n);
+
+        // Reverse the path in place in a copy, the tour may reverse the rest instead
+        int[] expected = tour.toArray();
+        int length = (j - i + n) % n + 1;
+        for (int k = 0; k < length / 2; k++) {
+          int a = (i + k) % n;
+          int b = (j - k + n) % n;
+          int t = expected[a];
+          expected[a] = expected[b];
+          expected[b] = t;
+        }
+        tour.reverse(i, j);
+        assertSameCycle(expected, tour);
+      }
+    }
+  }
+
+  @Test
+  public void testQueries() {
+    ArrayTour tour = new ArrayTour(new int[]{4, 2, 0, 3, 1});
+    assertEquals(2, tour.position(0));
+    assertEquals(3, tour.next(0));
+    assertEquals(4, tour.next(1));
+    assertEquals(1, tour.prev(4));
+    assertTrue(tour.between(2, 3, 1));
+    assertTrue(tour.between(3, 4, 2));
+    assertTrue(tour.between(3, 3, 3));
+    assertFalse(tour.between(3, 2, 1));
+    assertFalse(tour.between(1, 0, 4));
+
+    // Path of 4 cities out of 5, the other city stays in place
+    tour.reverse(3, 1);
+    assertEquals(2, tour.position(0));
+    assertSameCycle(new int[]{1, 3, 0, 2, 4}, tour);
+
+    assertThrows(IllegalArgumentException.class, () -> new ArrayTour(new int[]{0, 2, 2}));
+    assertThrows(IllegalArgumentException.class, () -> new ArrayTour(new int[]{0, 3, 1}));
+    assertThrows(IndexOutOfBoundsException.class, () -> tour.next(5));
+  }
+}
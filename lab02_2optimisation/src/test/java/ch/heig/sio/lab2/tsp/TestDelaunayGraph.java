@@ -0,0 +1,145 @@
+package ch.heig.sio.lab2.tsp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link DelaunayTriangulation} and {@link DelaunayGraph}.
+ */
+public class TestDelaunayGraph {
+
+  private static long squaredDistance(TspData.City a, TspData.City b) {
+    long dx = a.x() - b.x();
+    long dy = a.y() - b.y();
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * Asserts that the graph is undirected, sorted, and holds the nearest neighbours of each city.
+   */
+  private static void assertGraph(TspData data) {
+    DelaunayGraph graph = data.getDelaunayGraph();
+    int n = data.getNumberOfCities();
+    assertEquals(n, graph.getNumberOfCities());
+    assertTrue(graph.getNumberOfEdges() <= Math.max(3 * n - 6, n - 1));
+
+    for (int i = 0; i < n; i++) {
+      TspData.City city = data.getCityCoord(i);
+      long nearest = Long.MAX_VALUE;
+      for (int j = 0; j < n; j++) {
+        if (j != i) {
+          nearest = Math.min(nearest, squaredDistance(city, data.getCityCoord(j)));
+        }
+      }
+
+      assertTrue(n == 1 || graph.degree(i) > 0);
+      long previous = -1;
+      for (int k = 0; k < graph.degree(i); k++) {
+        int j = graph.neighbor(i, k);
+        long d = squaredDistance(city, data.getCityCoord(j));
+        assertTrue(d >= previous, "Neighbours of " + i + " are not sorted");
+        previous = d;
+
+        boolean symmetric = false;
+        for (int l = 0; l < graph.degree(j); l++) {
+          symmetric |= graph.neighbor(j, l) == i;
+        }
+        assertTrue(symmetric, "Edge " + i + "-" + j + " is missing its reverse");
+      }
+      if (n > 1) {
+        assertEquals(nearest, squaredDistance(city, data.getCityCoord(graph.neighbor(i, 0))),
+            "Nearest neighbour of " + i + " is missing");
+      }
+    }
+  }
+
+  @Test
+  public void testEmptyCircumcircles() {
+    Random rnd = new Random(0x134DAE9);
+    int n = 500;
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    for (int i = 0; i < n; i++) {
+      xs[i] = rnd.nextInt(1000);
+      ys[i] = rnd.nextInt(1000);
+    }
+
+    DelaunayTriangulation triangulation = new DelaunayTriangulation(xs, ys);
+    int[] triangles = triangulation.triangles();
+    int[] halfedges = triangulation.halfedges();
+    assertTrue(triangulation.trianglesLength() > 0);
+    for (int t = 0; t < triangulation.trianglesLength(); t += 3) {
+      long ax = (long) xs[triangles[t]];
+      long ay = (long) ys[triangles[t]];
+      long bx = (long) xs[triangles[t + 1]];
+      long by = (long) ys[triangles[t + 1]];
+      long cx = (long) xs[triangles[t + 2]];
+      long cy = (long) ys[triangles[t + 2]];
+      // Counter-clockwise with the y axis pointing down
+      assertTrue((bx - ax) * (cy - ay) - (by - ay) * (cx - ax) < 0,
+          "Triangle " + t / 3 + " is not counter-clockwise");
+
+      for (int p = 0; p < n; p++) {
+        long dx = ax - (long) xs[p];
+        long dy = ay - (long) ys[p];
+        long ex = bx - (long) xs[p];
+        long ey = by - (long) ys[p];
+        long fx = cx - (long) xs[p];
+        long fy = cy - (long) ys[p];
+        long det = (dx * dx + dy * dy) * (ex * fy - ey * fx) - (ex * ex + ey * ey) * (dx * fy - dy * fx)
+            + (fx * fx + fy * fy) * (dx * ey - dy * ex);
+        assertFalse(det < 0, "City " + p + " is inside the circumcircle of triangle " + t / 3);
+      }
+    }
+    for (int e = 0; e < triangulation.trianglesLength(); e++) {
+      assertTrue(halfedges[e] == -1 || halfedges[halfedges[e]] == e);
+    }
+  }
+
+  @Test
+  public void testGraph() throws FileNotFoundException {
+    // Many cocircular cities
+    assertGraph(TspData.fromFile("data/pcb442.dat"));
+
+    Random rnd = new Random(0x134DAE9);
+    TspData.City[] cities = new TspData.City[1000];
+    for (int i = 0; i < cities.length; i++) {
+      cities[i] = i > 0 && i % 9 == 0 ? cities[i / 4] : new TspData.City(rnd.nextInt(50_000), rnd.nextInt(50_000));
+    }
+    assertGraph(TspData.fromArray(cities));
+
+    // Dense duplicates: 2000 cities on 100 positions of a grid, many of them at the same distance from the center
+    TspData.City[] grid = new TspData.City[2000];
+    for (int i = 0; i < grid.length; i++) {
+      grid[i] = new TspData.City(100 * rnd.nextInt(10), 100 * rnd.nextInt(10));
+    }
+    assertGraph(TspData.fromArray(grid));
+
+    // Collinear and duplicated cities only
+    TspData.City[] line = new TspData.City[50];
+    for (int i = 0; i < line.length; i++) {
+      line[i] = new TspData.City(7, (i * 37) % 25);
+    }
+    assertGraph(TspData.fromArray(line));
+    assertGraph(TspData.fromArray(new TspData.City[]{new TspData.City(0, 0), new TspData.City(5, 5)}));
+    assertGraph(TspData.fromArray(new TspData.City[]{new TspData.City(0, 0)}));
+  }
+
+  @Test
+  public void testUnsupportedMetric(@TempDir Path dir) throws IOException {
+    TspData geo = TspData.fromTspLibFile(Files.writeString(dir.resolve("geo.tsp"),
+        "TYPE : TSP\nDIMENSION : 2\nEDGE_WEIGHT_TYPE : GEO\nNODE_COORD_SECTION\n1 0.0 0.0\n2 0.0 1.0\n").toString());
+    assertThrows(IllegalArgumentException.class, geo::getDelaunayGraph);
+  }
+}
@@ -0,0 +1,138 @@
+package ch.heig.sio.lab2.tsp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the queries of {@link KdTree}, compared to linear scans.
+ */
+public class TestKdTree {
+
+  private static long squaredDistance(TspData data, int i, int j) {
+    TspData.City a = data.getCityCoord(i);
+    TspData.City b = data.getCityCoord(j);
+    long dx = a.x() - b.x();
+    long dy = a.y() - b.y();
+    return dx * dx + dy * dy;
+  }
+
+  /**
+   * @return Cities not deleted other than {@code city}, sorted by distance then index
+   */
+  private static int[] sortedNeighbors(TspData data, KdTree tree, int city) {
+    return IntStream.range(0, data.getNumberOfCities())
+        .filter(j -> j != city && !tree.isDeleted(j))
+        .boxed()
+        .sorted((j1, j2) -> {
+          int c = Long.compare(squaredDistance(data, city, j1), squaredDistance(data, city, j2));
+          return c != 0 ? c : Integer.compare(j1, j2);
+        })
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  private static void assertQueries(TspData data, KdTree tree, Random rnd) {
+    int n = data.getNumberOfCities();
+    int[] out = new int[10];
+    for (int i = 0; i < n; i += 3) {
+      int[] expected = sortedNeighbors(data, tree, i);
+      assertEquals(expected.length == 0 ? -1 : expected[0], tree.nearest(i));
+
+      int count = tree.nearest(i, out.length, out);
+      assertArrayEquals(Arrays.copyOf(expected, Math.min(out.length, expected.length)), Arrays.copyOf(out, count));
+
+      double radius = rnd.nextDouble(2_000);
+      int city = i;
+      int[] within = Arrays.stream(expected).filter(j -> squaredDistance(data, city, j) <= radius * radius).sorted()
+          .toArray();
+      IntStream.Builder found = IntStream.builder();
+      assertEquals(within.length, tree.forEachWithin(i, radius, found::add));
+      assertArrayEquals(within, found.build().sorted().toArray());
+    }
+  }
+
+  @Test
+  public void testQueries() {
+    Random rnd = new Random(0x134DAE9);
+    // Clusters with duplicated cities
+    TspData.City[] cities = new TspData.City[2000];
+    for (int i = 0; i < cities.length; i++) {
+      int cluster = rnd.nextInt(5) * 3000;
+      cities[i] = i > 0 && i % 7 == 0 ? cities[i / 3] : new TspData.City(cluster + rnd.nextInt(1000), rnd.nextInt(500));
+    }
+    TspData data = TspData.fromArray(cities);
+    KdTree tree = KdTree.of(data);
+    assertEquals(cities.length, tree.size());
+    assertQueries(data, tree, rnd);
+
+    for (int i = 0; i < cities.length; i++) {
+      if (rnd.nextInt(4) != 0) {
+        assertTrue(tree.delete(i));
+      }
+    }
+    tree.delete(1);
+    assertFalse(tree.delete(1));
+    assertEquals(IntStream.range(0, cities.length).filter(i -> !tree.isDeleted(i)).count(), tree.size());
+    assertQueries(data, tree, rnd);
+
+    for (int i = 0; i < cities.length; i++) {
+      tree.delete(i);
+    }
+    assertEquals(0, tree.size());
+    assertEquals(-1, tree.nearest(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.nearest(cities.length));
+  }
+
+  @Test
+  public void testRestore() {
+    Random rnd = new Random(0x134DAE9);
+    TspData.City[] cities = new TspData.City[1000];
+    for (int i = 0; i < cities.length; i++) {
+      cities[i] = new TspData.City(rnd.nextInt(5000), rnd.nextInt(5000));
+    }
+    TspData data = TspData.fromArray(cities);
+    KdTree tree = KdTree.of(data);
+    tree.deleteAll();
+    assertEquals(0, tree.size());
+    assertEquals(-1, tree.nearest(0));
+
+    // Cities restored in a random order, as the cities of a growing tour
+    int[] order = IntStream.range(0, cities.length).toArray();
+    for (int i = order.length - 1; i > 0; i--) {
+      int j = rnd.nextInt(i + 1);
+      int city = order[i];
+      order[i] = order[j];
+      order[j] = city;
+    }
+    for (int k = 0; k < order.length; k++) {
+      assertTrue(tree.restore(order[k]));
+      if (k % 97 == 0) {
+        assertEquals(k + 1, tree.size());
+        assertQueries(data, tree, rnd);
+      }
+    }
+    assertFalse(tree.restore(order[0]));
+    assertEquals(cities.length, tree.size());
+    assertQueries(data, tree, rnd);
+  }
+
+  @Test
+  public void testUnsupportedMetric(@TempDir Path dir) throws IOException {
+    TspData geo = TspData.fromTspLibFile(Files.writeString(dir.resolve("geo.tsp"),
+        "TYPE : TSP\nDIMENSION : 2\nEDGE_WEIGHT_TYPE : GEO\nNODE_COORD_SECTION\n1 0.0 0.0\n2 0.0 1.0\n").toString());
+    assertThrows(IllegalArgumentException.class, () -> KdTree.of(geo));
+  }
+}
@@ -0,0 +1,516 @@
+package ch.heig.sio.lab2.tsp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the storage of distances in {@link TspData}.
+ */
+public class TestTspData {
+
+  /**
+   * Asserts that all the distances of {@code data} match the rounded euclidean distance between its cities.
+   */
+  private static void assertDistancesMatchCoordinates(TspData data) {
+    int n = data.getNumberOfCities();
+    for (int i = 0; i < n; i++) {
+      TspData.City a = data.getCityCoord(i);
+      for (int j = 0; j < n; j++) {
+        TspData.City b = data.getCityCoord(j);
+        int expected = (int) Math.round(Math.hypot(a.x() - b.x(), a.y() - b.y()));
+        assertEquals(expected, data.getDistance(i, j), "Distance mismatch between " + i + " and " + j);
+      }
+    }
+  }
+
+  @Test
+  public void testOneCity() {
+    TspData data = TspData.fromArray(new TspData.City[]{new TspData.City(3, 4)});
+    assertEquals(0, data.getDistance(0, 0));
+  }
+
+  @Test
+  public void testFromArray() {
+    TspData data = TspData.fromArray(new TspData.City[]{
+        new TspData.City(0, 0),
+        new TspData.City(3, 4),
+        new TspData.City(6, 8),
+        new TspData.City(-2, 7),
+    });
+    assertEquals(5, data.getDistance(0, 1));
+    assertEquals(5, data.getDistance(1, 0));
+    assertEquals(10, data.getDistance(2, 0));
+    assertDistancesMatchCoordinates(data);
+  }
+
+  @Test
+  public void testFromFile() throws FileNotFoundException {
+    assertDistancesMatchCoordinates(TspData.fromFile("data/carre.dat"));
+    assertDistancesMatchCoordinates(TspData.fromFile("data/pcb442.dat"));
+  }
+
+  @Test
+  public void testBackends() throws FileNotFoundException {
+    TspData automatic = TspData.fromFile("data/pcb442.dat");
+    assertEquals(DistanceBackend.COMPACT, automatic.getDistanceBackend());
+
+    for (DistanceBackend backend : DistanceBackend.values()) {
+      TspData data = TspData.fromFile("data/pcb442.dat", TspLoadOptions.defaults().withBackend(backend));
+      // Only a binary file can be mapped
+      assertEquals(backend == DistanceBackend.MAPPED ? DistanceBackend.COMPACT : backend, data.getDistanceBackend());
+      assertDistancesMatchCoordinates(data);
+    }
+  }
+
+  @Test
+  public void testHilbertOrder() throws FileNotFoundException {
+    TspData original = TspData.fromFile("data/u574.dat");
+    int n = original.getNumberOfCities();
+    int[] targets = IntStream.range(0, n).toArray();
+    int[] expected = new int[n];
+    int[] actual = new int[n];
+
+    for (DistanceBackend backend : DistanceBackend.values()) {
+      TspData data = TspData.fromFile("data/u574.dat",
+          TspLoadOptions.defaults().withBackend(backend).withHilbertOrder(true));
+      for (int i = 0; i < n; i++) {
+        assertEquals(original.getCityCoord(i), data.getCityCoord(i));
+        original.distancesFrom(i, targets, expected);
+        data.distancesFrom(i, targets, actual);
+        assertArrayEquals(expected, actual);
+        for (int j = 0; j < n; j++) {
+          assertEquals(expected[j], data.getDistance(i, j));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDistanceOracle() throws FileNotFoundException {
+    TspData original = TspData.fromFile("data/u574.dat");
+    int n = original.getNumberOfCities();
+    for (DistanceBackend backend : DistanceBackend.values()) {
+      for (boolean hilbertOrder : new boolean[]{false, true}) {
+        TspData data = TspData.fromFile("data/u574.dat",
+            TspLoadOptions.defaults().withBackend(backend).withHilbertOrder(hilbertOrder));
+        DistanceOracle oracle = data.getDistanceOracle();
+        for (int i = 0; i < n; i++) {
+          for (int j = 0; j < n; j++) {
+            assertEquals(original.getDistance(i, j), oracle.distance(i, j));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testRows() throws FileNotFoundException {
+    TspData original = TspData.fromFile("data/u574.dat");
+    int n = original.getNumberOfCities();
+    int[] cities = IntStream.range(0, n).toArray();
+    int[] subsetIds = new Random(0x134DAE9).ints(100, 0, n).toArray();
+    for (DistanceBackend backend : DistanceBackend.values()) {
+      for (boolean hilbertOrder : new boolean[]{false, true}) {
+        TspData data = TspData.fromFile("data/u574.dat",
+            TspLoadOptions.defaults().withBackend(backend).withHilbertOrder(hilbertOrder));
+        int[] rows = data.toRows(cities);
+        DistanceOracle oracle = data.getRowDistanceOracle();
+        for (int i = 0; i < n; i++) {
+          for (int j = 0; j < n; j++) {
+            assertEquals(original.getDistance(i, j), oracle.distance(rows[i], rows[j]));
+          }
+        }
+
+        TspData subset = data.subset(subsetIds);
+        int[] subsetRows = subset.toRows(IntStream.range(0, subsetIds.length).toArray());
+        DistanceOracle subsetOracle = subset.getRowDistanceOracle();
+        for (int i = 0; i < subsetIds.length; i++) {
+          for (int j = 0; j < subsetIds.length; j++) {
+            assertEquals(original.getDistance(subsetIds[i], subsetIds[j]),
+                subsetOracle.distance(subsetRows[i], subsetRows[j]));
+          }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> data.toRows(new int[]{0, n}));
+      }
+    }
+  }
+
+  @Test
+  public void testSubset() throws FileNotFoundException {
+    Random rnd = new Random(0x134DAE9);
+    int[] cityIds = rnd.ints(200, 0, 574).toArray();
+    int[] nestedIds = rnd.ints(50, 0, cityIds.length).toArray();
+    for (DistanceBackend backend : DistanceBackend.values()) {
+      for (boolean hilbertOrder : new boolean[]{false, true}) {
+        TspData data = TspData.fromFile("data/u574.dat",
+            TspLoadOptions.defaults().withBackend(backend).withHilbertOrder(hilbertOrder));
+        TspData subset = data.subset(cityIds);
+        assertEquals(cityIds.length, subset.getNumberOfCities());
+        assertEquals(data.getDistanceBackend(), subset.getDistanceBackend());
+        DistanceOracle oracle = subset.getDistanceOracle();
+        for (int i = 0; i < cityIds.length; i++) {
+          assertEquals(data.getCityCoord(cityIds[i]), subset.getCityCoord(i));
+          for (int j = 0; j < cityIds.length; j++) {
+            int expected = data.getDistance(cityIds[i], cityIds[j]);
+            assertEquals(expected, subset.getDistance(i, j));
+            assertEquals(expected, subset.computeDistance(i, j));
+            assertEquals(expected, oracle.distance(i, j));
+          }
+        }
+
+        TspData nested = subset.subset(nestedIds);
+        for (int i = 0; i < nestedIds.length; i++) {
+          for (int j = 0; j < nestedIds.length; j++) {
+            assertEquals(data.getDistance(cityIds[nestedIds[i]], cityIds[nestedIds[j]]), nested.getDistance(i, j));
+          }
+        }
+      }
+    }
+
+    TspData data = TspData.fromFile("data/u574.dat");
+    assertCandidateListsAreNearest(data.subset(cityIds), 8);
+    assertThrows(IllegalArgumentException.class, () -> data.subset(new int[0]));
+    assertThrows(IndexOutOfBoundsException.class, () -> data.subset(new int[]{0, 574}));
+  }
+
+  @Test
+  public void testCompactFallback() {
+    // The diagonal of the bounding box is exactly the largest distance that fits in 16 bits
+    TspData.City[] cities = {new TspData.City(0, 0), new TspData.City(65535, 0), new TspData.City(100, 100)};
+    TspData compact = TspData.fromArray(cities);
+    assertEquals(DistanceBackend.COMPACT, compact.getDistanceBackend());
+    assertDistancesMatchCoordinates(compact);
+
+    cities[1] = new TspData.City(65535, 400);
+    TspData packed = TspData.fromArray(cities, TspLoadOptions.defaults().withBackend(DistanceBackend.COMPACT));
+    assertEquals(DistanceBackend.PACKED, packed.getDistanceBackend());
+    assertDistancesMatchCoordinates(packed);
+  }
+
+  @Test
+  public void testBinaryFormat(@TempDir Path dir) throws IOException {
+    TspData original = TspData.fromFile("data/u574.dat");
+    Path withDistances = dir.resolve("u574.bin");
+    Path withoutDistances = dir.resolve("u574-coordinates.bin");
+    TspBinaryFormat.write(original, withDistances, true);
+    TspBinaryFormat.write(original, withoutDistances, false);
+
+    TspData mapped = TspData.fromMappedFile(withDistances.toString());
+    assertEquals(DistanceBackend.MAPPED, mapped.getDistanceBackend());
+    assertEquals(original.getNumberOfCities(), mapped.getNumberOfCities());
+    assertDistancesMatchCoordinates(mapped);
+
+    TspData computed = TspData.fromMappedFile(withoutDistances.toString());
+    assertEquals(DistanceBackend.COMPACT, computed.getDistanceBackend());
+    for (int i = 0; i < original.getNumberOfCities(); i++) {
+      assertEquals(original.getCityCoord(i), computed.getCityCoord(i));
+    }
+
+    Files.write(withoutDistances, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+    assertThrows(TspParsingException.class, () -> TspData.fromMappedFile(withoutDistances.toString()));
+    assertThrows(TspParsingException.class, () -> TspData.fromMappedFile("data/u574.dat"));
+  }
+
+  /**
+   * @return Files of the matrices stored in the cache
+   */
+  private static List<Path> cacheFiles(MatrixFileCache cache) throws IOException {
+    if (!Files.isDirectory(cache.directory())) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(cache.directory())) {
+      return files.toList();
+    }
+  }
+
+  @Test
+  public void testMatrixCache(@TempDir Path dir) throws IOException {
+    TspData original = TspData.fromFile("data/u574.dat");
+    MatrixFileCache cache = MatrixFileCache.in(dir.resolve("cache"));
+    TspLoadOptions options = TspLoadOptions.defaults().withMatrixCache(cache);
+
+    // Stored in the order of the cities, even when computed in Hilbert order
+    TspData computed = TspData.fromFile("data/u574.dat", options.withHilbertOrder(true));
+    assertEquals(DistanceBackend.COMPACT, computed.getDistanceBackend());
+    assertEquals(1, cacheFiles(cache).size());
+    Path u574File = cacheFiles(cache).get(0);
+
+    // Copied into the matrix the automatic selection would use, in the requested order. A hit touches the file.
+    Files.setLastModifiedTime(u574File, FileTime.fromMillis(0));
+    TspData cached = TspData.fromFile("data/u574.dat", options);
+    assertEquals(DistanceBackend.COMPACT, cached.getDistanceBackend());
+    assertTrue(Files.getLastModifiedTime(u574File).toMillis() > 0);
+    TspData cachedHilbert = TspData.fromFile("data/u574.dat", options.withHilbertOrder(true));
+    assertEquals(DistanceBackend.COMPACT, cachedHilbert.getDistanceBackend());
+    for (int i = 0; i < original.getNumberOfCities(); i++) {
+      for (int j = 0; j < original.getNumberOfCities(); j++) {
+        assertEquals(original.getDistance(i, j), cached.getDistance(i, j));
+        assertEquals(original.getDistance(i, j), cachedHilbert.getDistance(i, j));
+      }
+    }
+
+    // Only used when the backend is chosen automatically
+    assertEquals(DistanceBackend.FULL,
+        TspData.fromFile("data/u574.dat", options.withBackend(DistanceBackend.FULL)).getDistanceBackend());
+
+    // Another instance doesn't use the matrix, and evicts it when both don't fit
+    Files.setLastModifiedTime(u574File, FileTime.fromMillis(0));
+    TspData other = TspData.fromFile("data/pcb442.dat", options.withMatrixCache(cache.withMaxBytes(1 << 20)));
+    assertEquals(DistanceBackend.COMPACT, other.getDistanceBackend());
+    assertEquals(1, cacheFiles(cache).size());
+    assertFalse(Files.exists(u574File));
+    Path pcb442File = cacheFiles(cache).get(0);
+    TspData.fromFile("data/u574.dat", options);
+    assertEquals(2, cacheFiles(cache).size());
+    Files.setLastModifiedTime(pcb442File, FileTime.fromMillis(0));
+    TspData.fromFile("data/pcb442.dat", options);
+    assertTrue(Files.getLastModifiedTime(pcb442File).toMillis() > 0);
+
+    cache.clear();
+    assertEquals(0, cacheFiles(cache).size());
+    assertEquals(DistanceBackend.COMPACT, TspData.fromFile("data/pcb442.dat", options).getDistanceBackend());
+
+    // Too large to be stored
+    cache.clear();
+    TspData.fromFile("data/u574.dat", options.withMatrixCache(cache.withMaxBytes(1000)));
+    assertEquals(0, cacheFiles(cache).size());
+    assertThrows(IllegalArgumentException.class, () -> cache.withMaxBytes(-1));
+  }
+
+  @Test
+  public void testParallelFill() {
+    Random rnd = new Random(0x134DAE9);
+    TspData.City[] cities = new TspData.City[3000];
+    for (int i = 0; i < cities.length; i++) {
+      cities[i] = new TspData.City(rnd.nextInt(10_000), rnd.nextInt(10_000));
+    }
+
+    for (DistanceBackend backend : DistanceBackend.values()) {
+      TspData data = TspData.fromArray(cities, TspLoadOptions.defaults().withBackend(backend).withParallelism(4));
+      assertDistancesMatchCoordinates(data);
+    }
+  }
+
+  @Test
+  public void testDistancesFrom() {
+    // Coordinates up to the largest ones handled by the vectorized kernel, and a count that leaves a scalar tail
+    Random rnd = new Random(0x134DAE9);
+    TspData.City[] cities = new TspData.City[1001];
+    for (int i = 0; i < cities.length; i++) {
+      cities[i] = new TspData.City(rnd.nextInt(-(1 << 22), 1 << 22), rnd.nextInt(-(1 << 22), 1 << 22));
+    }
+    int[] targets = rnd.ints(cities.length - 2, 0, cities.length).toArray();
+    int[] out = new int[targets.length];
+
+    for (DistanceBackend backend : new DistanceBackend[]{DistanceBackend.FULL, DistanceBackend.COMPUTED}) {
+      TspData data = TspData.fromArray(cities, TspLoadOptions.defaults().withBackend(backend));
+      for (int i = 0; i < cities.length; i += 7) {
+        data.distancesFrom(i, targets, out);
+        for (int k = 0; k < targets.length; k++) {
+          assertEquals(data.computeDistance(i, targets[k]), out[k],
+              "Distance mismatch between " + i + " and " + targets[k]);
+        }
+      }
+    }
+
+    TspData data = TspData.fromArray(cities);
+    assertThrows(IndexOutOfBoundsException.class, () -> data.distancesFrom(0, new int[]{1, cities.length}, out));
+    assertThrows(IndexOutOfBoundsException.class, () -> data.distancesFrom(0, targets, new int[1]));
+  }
+
+  /**
+   * Asserts that the candidate lists of {@code data} hold the k smallest distances of each city, sorted.
+   */
+  private static void assertCandidateListsAreNearest(TspData data, int k) {
+    int n = data.getNumberOfCities();
+    CandidateLists lists = data.getCandidateLists(k);
+    assertEquals(Math.min(k, n - 1), lists.k());
+    for (int i = 0; i < n; i++) {
+      int city = i;
+      int[] expected = IntStream.range(0, n).filter(j -> j != city).map(j -> data.getDistance(city, j)).sorted()
+          .limit(lists.k()).toArray();
+      int[] actual = IntStream.range(0, lists.k()).map(r -> data.getDistance(city, lists.get(city, r))).toArray();
+      assertArrayEquals(expected, actual, "Wrong neighbours of " + i);
+    }
+  }
+
+  @Test
+  public void testCandidateLists(@TempDir Path dir) throws IOException {
+    TspData data = TspData.fromFile("data/pcb442.dat");
+    assertCandidateListsAreNearest(data, 10);
+    CandidateLists lists = data.getCandidateLists(10);
+    CandidateLists truncated = data.getCandidateLists(4);
+    for (int i = 0; i < data.getNumberOfCities(); i++) {
+      for (int r = 0; r < 4; r++) {
+        assertEquals(lists.get(i, r), truncated.get(i, r));
+      }
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> truncated.get(0, 4));
+    assertThrows(IllegalArgumentException.class, () -> data.getCandidateLists(-1));
+
+    // Cities on a line and duplicated cities
+    Random rnd = new Random(0x134DAE9);
+    TspData.City[] cities = new TspData.City[500];
+    for (int i = 0; i < cities.length; i++) {
+      cities[i] = i > 0 && i % 5 == 0 ? cities[i / 2] : new TspData.City(rnd.nextInt(100_000), 7);
+    }
+    assertCandidateListsAreNearest(TspData.fromArray(cities), 8);
+    assertCandidateListsAreNearest(TspData.fromArray(new TspData.City[]{new TspData.City(1, 1)}), 3);
+
+    // Metric without coordinates to search
+    StringBuilder content = new StringBuilder("TYPE : TSP\nDIMENSION : 200\nEDGE_WEIGHT_TYPE : GEO\nNODE_COORD_SECTION\n");
+    for (int i = 0; i < 200; i++) {
+      content.append(i + 1).append(' ').append(rnd.nextInt(-60, 60)).append(' ').append(rnd.nextInt(-150, 150))
+          .append('\n');
+    }
+    assertCandidateListsAreNearest(TspData.fromTspLibFile(Files.writeString(dir.resolve("geo.tsp"), content)
+        .toString()), 6);
+  }
+
+  @Test
+  public void testDistanceCache() throws FileNotFoundException {
+    TspLoadOptions computed = TspLoadOptions.defaults().withBackend(DistanceBackend.COMPUTED);
+
+    TspData uncached = TspData.fromFile("data/pcb442.dat", computed.withDistanceCacheBytes(0));
+    assertNull(uncached.getDistanceCache());
+
+    // Small enough to force evictions
+    TspData data = TspData.fromFile("data/pcb442.dat", computed.withDistanceCacheBytes(64 * 1024));
+    DistanceCache cache = data.getDistanceCache();
+    assertTrue(cache.capacity() * DistanceCache.BYTES_PER_ENTRY <= 64 * 1024);
+
+    assertDistancesMatchCoordinates(data);
+    assertDistancesMatchCoordinates(data);
+    assertTrue(cache.hits() > 0);
+    assertTrue(cache.misses() > 0);
+
+    // Repeated accesses to the same few pairs are always hits
+    cache.resetStatistics();
+    for (int k = 0; k < 100; k++) {
+      data.getDistance(1, 2);
+      data.getDistance(2, 1);
+    }
+    assertEquals(200, cache.hits() + cache.misses());
+    assertTrue(cache.hits() >= 199);
+  }
+
+  /**
+   * Asserts that parsing a file with the given content fails with the given message.
+   */
+  private static void assertParsingError(Path dir, String content, String message) throws IOException {
+    Path file = Files.writeString(dir.resolve("invalid.dat"), content);
+    TspParsingException e = assertThrows(TspParsingException.class, () -> TspData.fromFile(file.toString()));
+    assertEquals(message, e.getMessage());
+  }
+
+  @Test
+  public void testParsing(@TempDir Path dir) throws IOException {
+    Path file = Files.writeString(dir.resolve("valid.dat"), "3\r\n0 10 -20\n1\t+30 40\n\n  2 50\n60 trailing data");
+    TspData data = TspData.fromFile(file.toString());
+    assertEquals(3, data.getNumberOfCities());
+    assertEquals(new TspData.City(10, -20), data.getCityCoord(0));
+    assertEquals(new TspData.City(30, 40), data.getCityCoord(1));
+    assertEquals(new TspData.City(50, 60), data.getCityCoord(2));
+
+    assertParsingError(dir, "", "Invalid data. Empty data.");
+    assertParsingError(dir, " \n\t", "Invalid data. Empty data.");
+    assertParsingError(dir, "three\n", "Invalid data value. Invalid number of cities in first line of data file.");
+    assertParsingError(dir, "0\n", "Invalid data value. Number of cities should be at least 1.");
+    assertParsingError(dir, "2\n0 1 2\n2 3 4\n", "Invalid city number: 2 expected, 1 read.");
+    assertParsingError(dir, "1\n0 1.5 2\n",
+        "Invalid data value. City numbers and coordinates should be non negative integers.");
+    assertParsingError(dir, "1\n0 1 99999999999\n",
+        "Invalid data value. City numbers and coordinates should be non negative integers.");
+    assertParsingError(dir, "2\n0 1 2\n1 3\n", "Incomplete line : should follow format \"<city number> <u> <v>\"");
+
+    assertThrows(FileNotFoundException.class, () -> TspData.fromFile(dir.resolve("missing.dat").toString()));
+  }
+
+  @Test
+  public void testTspLib(@TempDir Path dir) throws IOException {
+    // Same instance as the text format
+    TspData original = TspData.fromFile("data/pcb442.dat");
+    StringBuilder content = new StringBuilder("NAME : pcb442\nTYPE : TSP\nDIMENSION : 442\nEDGE_WEIGHT_TYPE : EUC_2D\n");
+    content.append("NODE_COORD_SECTION\n");
+    for (int i = 0; i < original.getNumberOfCities(); i++) {
+      TspData.City city = original.getCityCoord(i);
+      content.append(i + 1).append(' ').append(city.x()).append(".0 ").append(city.y()).append("e0\n");
+    }
+    content.append("EOF\n");
+    TspData euclidean = TspData.fromTspLibFile(Files.writeString(dir.resolve("pcb442.tsp"), content).toString());
+    assertEquals(DistanceMetric.EUC_2D, euclidean.getMetric());
+    for (int i = 0; i < original.getNumberOfCities(); i++) {
+      for (int j = 0; j < original.getNumberOfCities(); j++) {
+        assertEquals(original.getDistance(i, j), euclidean.getDistance(i, j));
+      }
+    }
+
+    TspData att = TspData.fromTspLibFile(Files.writeString(dir.resolve("att.tsp"),
+        "TYPE: TSP\nDIMENSION: 3\nEDGE_WEIGHT_TYPE: ATT\nNODE_COORD_SECTION\n1 0 0\n2 10 0\n3 0 30\n").toString());
+    assertEquals(DistanceMetric.ATT, att.getMetric());
+    assertEquals(4, att.getDistance(0, 1));
+    assertEquals(10, att.getDistance(0, 2));
+
+    TspData ceil = TspData.fromTspLibFile(Files.writeString(dir.resolve("ceil.tsp"),
+        "TYPE : TSP\nDIMENSION : 2\nEDGE_WEIGHT_TYPE : CEIL_2D\nNODE_COORD_SECTION\n1 0 0\n2 1 1\n").toString());
+    assertEquals(2, ceil.getDistance(0, 1));
+
+    // Signs, decimals, exponents and any whitespace between the tokens
+    TspData tokens = TspData.fromTspLibFile(Files.writeString(dir.resolve("tokens.tsp"),
+        "TYPE : TSP\nDIMENSION : 3\nEDGE_WEIGHT_TYPE : EUC_2D\nNODE_COORD_SECTION\n  1\t-3 +4\n2 0.0\n\n 3e1\r\n"
+            + "3 -3.0E0 -36\nEOF\n").toString());
+    assertEquals(new TspData.City(-3, 4), tokens.getCityCoord(0));
+    assertEquals(new TspData.City(0, 30), tokens.getCityCoord(1));
+    assertEquals(new TspData.City(-3, -36), tokens.getCityCoord(2));
+    assertEquals(26, tokens.getDistance(0, 1));
+    assertEquals(40, tokens.getDistance(0, 2));
+
+    TspData geo = TspData.fromTspLibFile(Files.writeString(dir.resolve("geo.tsp"),
+        "TYPE : TSP\nDIMENSION : 2\nEDGE_WEIGHT_TYPE : GEO\nNODE_COORD_SECTION\n1 0.0 0.0\n2 0.0 1.0\n").toString());
+    assertEquals(112, geo.getDistance(0, 1));
+    assertEquals(0, geo.getDistance(1, 1));
+
+    TspData explicit = TspData.fromTspLibFile(Files.writeString(dir.resolve("explicit.tsp"),
+        "TYPE : TSP\nDIMENSION : 3\nEDGE_WEIGHT_TYPE : EXPLICIT\nEDGE_WEIGHT_FORMAT : LOWER_DIAG_ROW\n"
+            + "EDGE_WEIGHT_SECTION\n0\n5 0\n7 9 0\nEOF\n").toString());
+    assertEquals(DistanceMetric.EXPLICIT, explicit.getMetric());
+    assertEquals(5, explicit.getDistance(1, 0));
+    assertEquals(7, explicit.getDistance(0, 2));
+    assertEquals(9, explicit.getDistance(2, 1));
+    // The parsed matrix is the storage of the instance, whatever the backend requested
+    assertEquals(DistanceBackend.PACKED, explicit.getDistanceBackend());
+    TspData explicitFull = TspData.fromTspLibFile(dir.resolve("explicit.tsp").toString(),
+        TspLoadOptions.defaults().withBackend(DistanceBackend.FULL));
+    assertEquals(DistanceBackend.PACKED, explicitFull.getDistanceBackend());
+    assertEquals(9, explicitFull.getDistance(1, 2));
+
+    assertThrows(TspParsingException.class, () -> TspData.fromTspLibFile(Files.writeString(dir.resolve("atsp.tsp"),
+        "TYPE : ATSP\nDIMENSION : 3\n").toString()));
+    assertThrows(IllegalArgumentException.class, () -> TspBinaryFormat.write(att, dir.resolve("att.bin"), true));
+  }
+
+  @Test
+  public void testOutOfBounds() {
+    TspData data = TspData.fromArray(new TspData.City[]{new TspData.City(0, 0), new TspData.City(1, 1)});
+    assertThrows(IndexOutOfBoundsException.class, () -> data.getDistance(0, 2));
+    assertThrows(IndexOutOfBoundsException.class, () -> data.getDistance(-1, 0));
+  }
+}
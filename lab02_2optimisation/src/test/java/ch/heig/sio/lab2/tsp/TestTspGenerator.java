@@ -0,0 +1,87 @@
+package ch.heig.sio.lab2.tsp;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link TspGenerator}.
+ */
+public class TestTspGenerator {
+
+  private static void assertSameCities(TspData expected, TspData actual) {
+    assertEquals(expected.getNumberOfCities(), actual.getNumberOfCities());
+    for (int i = 0; i < expected.getNumberOfCities(); i++) {
+      assertEquals(expected.getCityCoord(i), actual.getCityCoord(i));
+    }
+  }
+
+  @Test
+  public void testReproducible() {
+    for (CityDistribution distribution : CityDistribution.values()) {
+      TspGenerator generator = TspGenerator.of(distribution, 1000, 42).withSize(10_000);
+      TspData data = generator.generate();
+      assertEquals(1000, data.getNumberOfCities());
+      assertEquals(DistanceMetric.EUC_2D, data.getMetric());
+      assertSameCities(data, generator.generate());
+      for (int i = 0; i < data.getNumberOfCities(); i++) {
+        TspData.City city = data.getCityCoord(i);
+        assertTrue(city.x() >= 0 && city.x() < 10_000 && city.y() >= 0 && city.y() < 10_000);
+      }
+
+      TspData other = TspGenerator.of(distribution, 1000, 43).withSize(10_000).generate();
+      boolean different = false;
+      for (int i = 0; i < data.getNumberOfCities(); i++) {
+        different |= !data.getCityCoord(i).equals(other.getCityCoord(i));
+      }
+      assertTrue(different, distribution + " ignores the seed");
+    }
+  }
+
+  @Test
+  public void testRegularGrid() {
+    TspData grid = TspGenerator.of(CityDistribution.JITTERED_GRID, 9, 0).withSize(30).withJitter(0).generate();
+    for (int i = 0; i < 9; i++) {
+      assertEquals(new TspData.City(5 + 10 * (i % 3), 5 + 10 * (i / 3)), grid.getCityCoord(i));
+    }
+    // With the default jitter, cities move up to a quarter of their cell from its center
+    TspData jittered = TspGenerator.of(CityDistribution.JITTERED_GRID, 100, 0).withSize(1000).generate();
+    for (int i = 0; i < 100; i++) {
+      TspData.City city = jittered.getCityCoord(i);
+      assertTrue(Math.abs(city.x() - (50 + 100 * (i % 10))) <= 25);
+      assertTrue(Math.abs(city.y() - (50 + 100 * (i / 10))) <= 25);
+    }
+    TspData single = TspGenerator.of(CityDistribution.CLUSTERED, 100, 0).withClusters(1).withSize(1).generate();
+    assertEquals(0, single.getDistance(0, 99));
+  }
+
+  @Test
+  public void testFiles(@TempDir Path dir) throws IOException {
+    TspGenerator generator = TspGenerator.of(CityDistribution.CLUSTERED, 500, 7);
+    TspData data = generator.generate();
+
+    Path dat = dir.resolve("clustered.dat");
+    generator.writeDatFile(dat);
+    assertSameCities(data, TspData.fromFile(dat.toString()));
+
+    Path bin = dir.resolve("clustered.bin");
+    generator.writeBinaryFile(bin);
+    assertSameCities(data, TspData.fromMappedFile(bin.toString()));
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> TspGenerator.of(CityDistribution.UNIFORM, 0, 0));
+    TspGenerator generator = TspGenerator.of(CityDistribution.UNIFORM, 10, 0);
+    assertThrows(IllegalArgumentException.class, () -> generator.withSize(0));
+    assertThrows(IllegalArgumentException.class, () -> generator.withClusters(0));
+    assertThrows(IllegalArgumentException.class, () -> generator.withJitter(1.5));
+    assertThrows(IllegalArgumentException.class, () -> generator.withJitter(Double.NaN));
+  }
+}
@@ -0,0 +1,53 @@
+package ch.heig.sio.lab2.tsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the iteration over a {@link TspTour.View}.
+ */
+public class TestTspTour {
+
+  @Test
+  public void testIteration() {
+    TspTour.View tour = new TspTour.View(new int[]{3, 0, 2, 1});
+
+    PrimitiveIterator.OfInt cities = tour.intIterator();
+    for (int i = 0; i < tour.size(); i++) {
+      assertEquals(tour.get(i), cities.nextInt());
+    }
+    assertFalse(cities.hasNext());
+    assertThrows(NoSuchElementException.class, cities::nextInt);
+
+    List<Edge> expected = List.of(new Edge(3, 0), new Edge(0, 2), new Edge(2, 1), new Edge(1, 3));
+    List<Edge> edges = new ArrayList<>();
+    tour.forEachEdge((u, v) -> edges.add(new Edge(u, v)));
+    assertEquals(expected, edges);
+
+    List<Edge> iterated = new ArrayList<>();
+    Iterator<Edge> iterator = tour.edgeIterator();
+    iterator.forEachRemaining(iterated::add);
+    assertEquals(expected, iterated);
+    assertThrows(NoSuchElementException.class, iterator::next);
+  }
+
+  @Test
+  public void testSmallTours() {
+    List<Edge> edges = new ArrayList<>();
+    new TspTour.View(new int[]{5}).forEachEdge((u, v) -> edges.add(new Edge(u, v)));
+    assertEquals(List.of(new Edge(5, 5)), edges);
+
+    new TspTour.View(new int[0]).forEachEdge((u, v) -> edges.add(new Edge(u, v)));
+    assertEquals(1, edges.size());
+    assertFalse(new TspTour.View(new int[0]).edgeIterator().hasNext());
+  }
+}
@@ -0,0 +1,71 @@
+package ch.heig.sio.lab2.tsp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link TwoLevelTour}, against {@link ArrayTour}.
+ */
+public class TestTwoLevelTour {
+
+  private static int[] shuffledCities(int n, Random rnd) {
+    int[] cities = IntStream.range(0, n).toArray();
+    for (int k = n - 1; k > 0; k--) {
+      int r = rnd.nextInt(k + 1);
+      int t = cities[k];
+      cities[k] = cities[r];
+      cities[r] = t;
+    }
+    return cities;
+  }
+
+  @Test
+  public void testSameAsArrayTour() {
+    Random rnd = new Random(0x134DAE9);
+    for (int n : new int[]{1, 2, 3, 4, 5, 17, 100, 1000}) {
+      int[] cities = shuffledCities(n, rnd);
+      ArrayTour expected = new ArrayTour(cities);
+      TwoLevelTour tour = new TwoLevelTour(cities);
+      // Enough reversals to rebuild the segments many times
+      for (int move = 0; move < 2000; move++) {
+        int a = rnd.nextInt(n);
+        // Short paths as in local searches, and arbitrary ones
+        int b = move % 2 == 0 ? expected.city((expected.position(a) + rnd.nextInt(Math.min(n, 8))) % n)
+            : rnd.nextInt(n);
+        expected.reversePath(a, b);
+        tour.reversePath(a, b);
+
+        if (move % 50 == 0 || n < 10) {
+          assertArrayEquals(expected.toArray(), tour.toArray(), "After move " + move + " on " + n + " cities");
+          for (int c = 0; c < n; c++) {
+            assertEquals(expected.position(c), tour.position(c));
+            assertEquals(expected.next(c), tour.next(c));
+            assertEquals(expected.prev(c), tour.prev(c));
+          }
+        }
+        int x = rnd.nextInt(n);
+        int y = rnd.nextInt(n);
+        int z = rnd.nextInt(n);
+        assertEquals(expected.between(x, y, z), tour.between(x, y, z));
+      }
+      assertArrayEquals(expected.toArray(), tour.toArray());
+    }
+  }
+
+  @Test
+  public void testFactory() {
+    Random rnd = new Random(0x134DAE9);
+    assertInstanceOf(ArrayTour.class, MutableTour.of(shuffledCities(100, rnd)));
+    assertInstanceOf(TwoLevelTour.class, MutableTour.of(shuffledCities(TwoLevelTour.MIN_CITIES, rnd)));
+    assertEquals(0, new TwoLevelTour(new int[0]).toArray().length);
+    assertThrows(IllegalArgumentException.class, () -> new TwoLevelTour(new int[]{1, 1}));
+    assertThrows(IndexOutOfBoundsException.class, () -> new TwoLevelTour(new int[]{1, 0}).next(2));
+  }
+}